@@ -0,0 +1,110 @@
+package com.example.demo.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка запроса входа на большой таблице с индексами из V2__indexes.sql и без них
+ * 
+ * Запрос тот же, что Hibernate строит для findByUsername с EAGER ролями.
+ * Вариант indexes=false удаляет ux_users_username и ix_user_roles_role_user
+ * после миграций: поиск по username превращается в полный просмотр users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoginQueryBenchmark {
+
+    private static final int INSERT_BATCH = 100_000;
+
+    private static final String LOGIN_SQL = """
+            SELECT u.id, u.username, u.password, u.enabled, u.last_login_at, u.login_count, r.id, r.name
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            WHERE u.username = ?""";
+
+    @Param({"200000", "1000000"})
+    public int users;
+
+    @Param({"true", "false"})
+    public boolean indexes;
+
+    private Path directory;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        directory = Files.createTempDirectory("login-query-benchmark");
+        // Одно соединение: замеряется запрос, а не открытие соединения
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + directory.resolve("users"), "sa", "", true);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO roles (id, name) VALUES (1, 'ROLE_USER'), (2, 'ROLE_ADMIN')");
+        for (int from = 1; from <= users; from += INSERT_BATCH) {
+            int to = Math.min(users, from + INSERT_BATCH - 1);
+            jdbc.update("INSERT INTO users (id, username, password, enabled)"
+                    + " SELECT X, 'user_' || X, '$2a$12$hash', TRUE FROM SYSTEM_RANGE(?, ?)", from, to);
+            jdbc.update("INSERT INTO user_roles (user_id, role_id) SELECT X, 1 FROM SYSTEM_RANGE(?, ?)", from, to);
+        }
+        if (!indexes) {
+            jdbc.execute("DROP INDEX ux_users_username");
+            jdbc.execute("DROP INDEX ix_user_roles_role_user");
+        }
+        jdbc.execute("ANALYZE");
+
+        String plan = jdbc.queryForObject("EXPLAIN " + LOGIN_SQL.replace("?", "'user_1'"), String.class);
+        if (plan.toUpperCase().contains("UX_USERS_USERNAME") != indexes) {
+            throw new IllegalStateException("Неожиданный план запроса: " + plan);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        dataSource.destroy();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> login() {
+        // Шаг - простое число: имена идут вразброс по таблице
+        next = (next + 104_729) % users;
+        List<Map<String, Object>> rows = jdbc.queryForList(LOGIN_SQL, "user_" + (next + 1));
+        if (rows.size() != 1) {
+            throw new IllegalStateException("Пользователь user_" + (next + 1) + " не найден");
+        }
+        return rows;
+    }
+}
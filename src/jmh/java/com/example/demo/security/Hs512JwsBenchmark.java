@@ -0,0 +1,104 @@
+package com.example.demo.security;
+
+import com.example.demo.config.JwtConfig;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка HS512 токена: NimbusJwtEncoder/NimbusJwtDecoder
+ * против Hs512JwtEncoder/Hs512Jws на 1, 8 и 64 потоках
+ * 
+ * Потоки JMH платформенные (Hs512Mac берет ThreadLocal экземпляр).
+ * Ветку виртуальных потоков (общий пул Mac) проверяет запуск
+ * с -Djmh.executor=VIRTUAL:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="Hs512JwsBenchmark -jvmArgsAppend -Djmh.executor=VIRTUAL"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class Hs512JwsBenchmark {
+
+    @Param({"NIMBUS", "HS512_MAC"})
+    public String implementation;
+
+    private JwtEncoder encoder;
+    private JwtDecoder decoder;
+
+    @Setup
+    public void createCodecs() {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "jwtSecret",
+                "mySecretKeyForJWTTokenGenerationAndValidationInSpringSecurityDemoApplication2024");
+        if ("NIMBUS".equals(implementation)) {
+            // Прежняя конфигурация JwtConfig
+            SecretKey secretKey = jwtConfig.jwtSecretKey();
+            OctetSequenceKey octetKey = new OctetSequenceKey.Builder(secretKey).keyID("jwt-signing-key").build();
+            encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(octetKey)));
+            decoder = NimbusJwtDecoder.withSecretKey(secretKey).macAlgorithm(MacAlgorithm.HS512).build();
+        } else {
+            encoder = jwtConfig.jwtEncoder();
+            decoder = jwtConfig.jwtDecoder();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threads1() {
+        return encodeAndDecode();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String threads8() {
+        return encodeAndDecode();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String threads64() {
+        return encodeAndDecode();
+    }
+
+    private String encodeAndDecode() {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("spring-security-demo")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(86_400))
+                .subject("user")
+                .claim("authorities", "ROLE_USER")
+                .build();
+        String token = encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS512).build(), claims))
+                .getTokenValue();
+        return decoder.decode(token).getSubject();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.security;
+
+import com.example.demo.config.JwtConfig;
+import com.example.demo.entity.Role;
+import com.example.demo.repository.RoleRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверка токена из заголовка Authorization: стандартный JWS против компактного формата
+ * 
+ * Размер заголовка сравнивается в CompactTokenFormatTests; здесь - время
+ * decodeValidToken (подпись, срок, claims) для обоих форматов на одном ключе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TokenDecodeBenchmark {
+
+    @Param({"JWS", "COMPACT"})
+    public TokenFormat format;
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void issueToken() {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "jwtSecret",
+                "mySecretKeyForJWTTokenGenerationAndValidationInSpringSecurityDemoApplication2024");
+
+        Role admin = new Role("ADMIN");
+        admin.setId(1L);
+        Role user = new Role("USER");
+        user.setId(2L);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(admin, user));
+        RoleMaskRegistry registry = new RoleMaskRegistry();
+        ReflectionTestUtils.setField(registry, "roleRepository", roleRepository);
+        registry.refresh();
+
+        tokenProvider = new JwtTokenProvider(jwtConfig.jwtEncoder(), jwtConfig.jwtDecoder(),
+                registry, new CompactTokenCodec(jwtConfig.jwtSecretKey()));
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 86_400_000L);
+
+        UserDetails principal = User.withUsername("admin").password("x").roles("ADMIN", "USER").build();
+        token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()), format);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return tokenProvider.decodeValidToken(token);
+    }
+}
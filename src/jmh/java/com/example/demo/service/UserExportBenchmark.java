@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выгрузка большой таблицы пользователей в JVM с кучей 64 МБ
+ * 
+ * Таблица лежит в файловой H2 с небольшим кешем, чтобы в куче была только
+ * сама выгрузка. Если строки копятся в памяти, форк падает с OutOfMemoryError.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx64m", "-XX:+HeapDumpOnOutOfMemoryError"})
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class UserExportBenchmark {
+
+    private static final int INSERT_BATCH = 100_000;
+
+    @Param({"1000000"})
+    public int users;
+
+    @Param({"CSV", "NDJSON"})
+    public UserExportService.Format format;
+
+    private Path directory;
+    private UserExportService exportService;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        directory = Files.createTempDirectory("user-export-benchmark");
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:file:" + directory.resolve("users") + ";CACHE_SIZE=8192", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO roles (id, name) VALUES (1, 'ROLE_USER'), (2, 'ROLE_ADMIN')");
+        for (int from = 1; from <= users; from += INSERT_BATCH) {
+            int to = Math.min(users, from + INSERT_BATCH - 1);
+            jdbc.update("INSERT INTO users (id, username, password, enabled)"
+                    + " SELECT X, 'user_' || X, '$2a$12$hash', TRUE FROM SYSTEM_RANGE(?, ?)", from, to);
+            jdbc.update("INSERT INTO user_roles (user_id, role_id) SELECT X, 1 FROM SYSTEM_RANGE(?, ?)", from, to);
+        }
+
+        exportService = new UserExportService();
+        ReflectionTestUtils.setField(exportService, "jdbcTemplate", jdbc);
+        ReflectionTestUtils.setField(exportService, "objectMapper", new ObjectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.export(format, out);
+        if (out.bytes < (long) users * 20) {
+            throw new IllegalStateException("Выгружено только " + out.bytes + " байт");
+        }
+        return out.bytes;
+    }
+
+    /**
+     * Ответ клиенту: байты только считаются
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
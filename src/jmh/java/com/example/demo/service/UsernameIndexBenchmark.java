@@ -0,0 +1,67 @@
+package com.example.demo.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Триграммный индекс имен на 1M и 10M пользователей:
+ * построение и type-ahead поиск по префиксу и подстроке
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UsernameIndexBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int users;
+
+    private UsernameIndex index;
+
+    @Setup
+    public void build() {
+        index = fill(users);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int buildIndex() {
+        return fill(users).liveCount();
+    }
+
+    @Benchmark
+    public List<UsernameIndex.Match> searchPrefix() {
+        return index.searchPrefix("user_a", 20);
+    }
+
+    @Benchmark
+    public List<UsernameIndex.Match> searchContains() {
+        return index.searchContains("xyz", 20);
+    }
+
+    private static UsernameIndex fill(int users) {
+        UsernameIndex index = new UsernameIndex();
+        for (long id = 1; id <= users; id++) {
+            // Псевдослучайные имена, чтобы списки триграмм не были одинаковыми
+            index.add(id, "user_" + Long.toString(id * 2654435761L % 1_000_000_007L, 36));
+        }
+        return index;
+    }
+}
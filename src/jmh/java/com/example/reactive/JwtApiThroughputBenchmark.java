@@ -0,0 +1,103 @@
+package com.example.reactive;
+
+import com.example.demo.DemoApplication;
+import com.jayway.jsonpath.JsonPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность JWT API: сервлетный вариант (Tomcat) против реактивного (Netty)
+ * 
+ * В каждом форке поднимается одно приложение на случайном порту, токен
+ * выдается через /api/auth/login, затем 256 потоков JMH вызывают
+ * /api/user/info (проверка токена - основной сценарий) и /api/auth/login
+ * (упирается в BCrypt(12)). Клиент - java.net.http.HttpClient, одинаковый
+ * для обоих вариантов, поэтому его накладные расходы входят в оба результата.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+public class JwtApiThroughputBenchmark {
+
+    private static final String LOGIN_BODY = "{\"username\":\"admin\",\"password\":\"admin123\"}";
+
+    @Param({"SERVLET", "REACTIVE"})
+    public String variant;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest userInfo;
+    private HttpRequest login;
+
+    @Setup
+    public void start() throws IOException, InterruptedException {
+        context = "SERVLET".equals(variant)
+                ? new SpringApplicationBuilder(DemoApplication.class)
+                        .run("--server.port=0")
+                : new SpringApplicationBuilder(ReactiveJwtApplication.class)
+                        .web(WebApplicationType.REACTIVE)
+                        .run("--reactive.server.port=0");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(LOGIN_BODY))
+                .build();
+        String token = JsonPath.read(send(login), "$.token");
+        userInfo = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/user/info"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(256)
+    public String userInfo() throws IOException, InterruptedException {
+        return send(userInfo);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String login() throws IOException, InterruptedException {
+        return send(login);
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " -> " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import com.example.demo.security.AccountStatusFeed;
+import com.example.demo.security.JdbcAccountStatusFeed;
+import com.example.demo.security.LocalAccountStatusFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+/**
+ * Выбор канала рассылки изменений статуса учетных записей
+ * 
+ * security.account-status.feed=local - только текущий процесс (по умолчанию)
+ * security.account-status.feed=jdbc - все узлы, подключенные к той же БД
+ */
+@Configuration
+public class AccountStatusFeedConfig {
+
+    @Bean
+    public AccountStatusFeed accountStatusFeed(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${security.account-status.feed:local}") String feed,
+            @Value("${security.account-status.retention:1d}") Duration retention,
+            @Value("${security.account-status.poll-overlap:30s}") Duration overlap) {
+        return switch (feed) {
+            case "local" -> new LocalAccountStatusFeed();
+            case "jdbc" -> new JdbcAccountStatusFeed(jdbcTemplate, transactionManager, retention, overlap);
+            default -> throw new IllegalArgumentException("Неизвестный security.account-status.feed: " + feed);
+        };
+    }
+}
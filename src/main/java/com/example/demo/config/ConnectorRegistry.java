@@ -0,0 +1,124 @@
+package com.example.demo.config;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Коннекторы Tomcat по портам: класс трафика и метрики
+ * 
+ * Счетчики (LongAdder) обновляются ConnectorTrafficFilter на каждом запросе,
+ * состояние пула потоков читается из коннектора в момент запроса метрик
+ */
+@Component
+public class ConnectorRegistry {
+
+    /**
+     * Состояние одного порта
+     */
+    public static final class ConnectorStats {
+        private final int port;
+        private final TrafficClass trafficClass;
+        private final Predicate<String> allowedPaths;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private volatile Connector connector;
+
+        ConnectorStats(int port, TrafficClass trafficClass, Predicate<String> allowedPaths) {
+            this.port = port;
+            this.trafficClass = trafficClass;
+            this.allowedPaths = allowedPaths;
+        }
+
+        public TrafficClass getTrafficClass() {
+            return trafficClass;
+        }
+
+        /**
+         * Принимает ли порт запрос с этим путем
+         */
+        public boolean allows(String path) {
+            return allowedPaths.test(path);
+        }
+
+        public void recordRequest(long nanos) {
+            requests.increment();
+            totalNanos.add(nanos);
+        }
+
+        public void recordRejected() {
+            rejected.increment();
+        }
+    }
+
+    private final Map<Integer, ConnectorStats> connectors = new ConcurrentHashMap<>();
+
+    /**
+     * Регистрация класса трафика для порта
+     * 
+     * @param adminPaths шаблоны путей для класса ADMIN (connector.admin-paths)
+     */
+    public void register(int port, TrafficClass trafficClass, List<String> adminPaths) {
+        connectors.putIfAbsent(port, new ConnectorStats(port, trafficClass, trafficClass.pathFilter(adminPaths)));
+    }
+
+    /**
+     * Состояние порта; неизвестные порты принимают весь трафик
+     */
+    public ConnectorStats get(int port) {
+        return connectors.computeIfAbsent(port,
+                p -> new ConnectorStats(p, TrafficClass.ALL, TrafficClass.ALL.pathFilter(List.of())));
+    }
+
+    /**
+     * Привязка запущенных коннекторов Tomcat для чтения метрик пула потоков
+     */
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (event.getWebServer() instanceof TomcatWebServer tomcat) {
+            for (Connector connector : tomcat.getTomcat().getService().findConnectors()) {
+                get(connector.getLocalPort()).connector = connector;
+            }
+        }
+    }
+
+    /**
+     * Снимок метрик всех портов
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ConnectorStats stats : connectors.values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            long requests = stats.requests.sum();
+            item.put("port", stats.port);
+            item.put("trafficClass", stats.trafficClass);
+            item.put("requests", requests);
+            item.put("rejected", stats.rejected.sum());
+            item.put("avgLatencyMicros", requests == 0 ? 0 : stats.totalNanos.sum() / requests / 1_000);
+
+            Connector connector = stats.connector;
+            Executor executor = connector != null ? connector.getProtocolHandler().getExecutor() : null;
+            if (executor instanceof ThreadPoolExecutor pool) {
+                item.put("activeThreads", pool.getActiveCount());
+                item.put("poolSize", pool.getPoolSize());
+                item.put("maxThreads", pool.getMaximumPoolSize());
+                item.put("queued", pool.getQueue().size());
+            }
+            result.add(item);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Фильтр класса трафика порта
+ * 
+ * Запрос, не подходящий классу трафика порта, на который он пришел
+ * (например /user/dashboard на API порт), отклоняется с 404 до цепочки
+ * безопасности. Заодно считает запросы и время обработки по портам.
+ */
+public class ConnectorTrafficFilter extends OncePerRequestFilter {
+
+    private final ConnectorRegistry registry;
+
+    public ConnectorTrafficFilter(ConnectorRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        ConnectorRegistry.ConnectorStats stats = registry.get(request.getLocalPort());
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (!stats.allows(path)) {
+            stats.recordRejected();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stats.recordRequest(System.nanoTime() - start);
+        }
+    }
+}
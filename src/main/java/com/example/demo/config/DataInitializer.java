@@ -6,8 +6,8 @@ import com.example.demo.repository.RoleRepository;
 import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -19,16 +19,27 @@ import java.util.Set;
 @Component
 public class DataInitializer implements CommandLineRunner {
     
+    /**
+     * Заранее посчитанные BCrypt(12) хеши паролей тестовых пользователей
+     * (admin123 и user123). Каждый encode с силой 12 занимает ~250 мс,
+     * поэтому хеши не считаются при каждом запуске.
+     * При смене тестового пароля хеш нужно пересчитать через passwordEncoder.encode.
+     */
+    public static final String ADMIN_PASSWORD_HASH = "$2a$12$hTpjCfNuHcsAa4qM/SqOaezx.aJjkhwAf31/1FoiuygtlI50C0wfS";
+    public static final String USER_PASSWORD_HASH = "$2a$12$3FCphGJLYDj9KJNoi.W./ezYDM9te6G/Qqvea7oU4gATqa4feshQe";
+    
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private RoleRepository roleRepository;
     
-    @Autowired
-    private PasswordEncoder passwordEncoder;
-    
+    /**
+     * Одна пишущая транзакция - все чтения и записи идут на основную БД,
+     * даже если настроена реплика (ReplicaDataSourceConfig)
+     */
     @Override
+    @Transactional
     public void run(String... args) throws Exception {
         // Создание ролей
         Role adminRole = roleRepository.findByName("ADMIN")
@@ -41,7 +52,7 @@ public class DataInitializer implements CommandLineRunner {
         if (!userRepository.existsByUsername("admin")) {
             User admin = new User();
             admin.setUsername("admin");
-            admin.setPassword(passwordEncoder.encode("admin123"));
+            admin.setPassword(ADMIN_PASSWORD_HASH); // admin123
             admin.setEnabled(true);
             
             Set<Role> adminRoles = new HashSet<>();
@@ -57,7 +68,7 @@ public class DataInitializer implements CommandLineRunner {
         if (!userRepository.existsByUsername("user")) {
             User user = new User();
             user.setUsername("user");
-            user.setPassword(passwordEncoder.encode("user123"));
+            user.setPassword(USER_PASSWORD_HASH); // user123
             user.setEnabled(true);
             
             Set<Role> userRoles = new HashSet<>();
@@ -0,0 +1,161 @@
+package com.example.demo.config;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.FilterChainProxy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Замер собственного времени каждого фильтра цепочки Spring Security
+ *
+ * Подключается к FilterChainProxy как FilterChainDecorator (FilterProfilerConfig):
+ * каждый фильтр оборачивается в TimedFilter, который вычитает из своего
+ * времени время дальнейшей цепочки - в гистограмму попадает только работа
+ * самого фильтра.
+ *
+ * Статистика раздельная для /api/** (токены) и остальных запросов (формы, сессии),
+ * чтобы было видно, что из цепочки оплачивает API-трафик.
+ *
+ * Обертки создаются один раз на список фильтров цепочки, на запрос -
+ * только объект Downstream на каждый фильтр и запись в гистограмму.
+ */
+public class FilterChainProfiler implements FilterChainProxy.FilterChainDecorator {
+
+    private static final String API_PREFIX = "/api/";
+
+    /**
+     * Ограничение на число разных списков фильтров (обычно по одному на SecurityFilterChain)
+     */
+    private static final int MAX_CHAINS = 16;
+
+    /**
+     * @param filters исходный список фильтров цепочки
+     * @param decorated те же TimedFilter, что в timed, - список для VirtualFilterChain
+     */
+    private record TimedChain(List<Filter> filters, List<TimedFilter> timed, List<Filter> decorated) {
+    }
+
+    private final FilterChainProxy.FilterChainDecorator delegate = new FilterChainProxy.VirtualFilterChainDecorator();
+    private volatile TimedChain[] chains = new TimedChain[0];
+
+    @Override
+    public FilterChain decorate(FilterChain original, List<Filter> filters) {
+        if (filters.isEmpty()) {
+            return delegate.decorate(original, filters);
+        }
+        return delegate.decorate(original, timed(filters).decorated());
+    }
+
+    /**
+     * Собственное время фильтров по порядку в цепочке, сначала API, затем остальные запросы
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (boolean api : new boolean[] {true, false}) {
+            for (TimedChain chain : chains) {
+                for (int i = 0; i < chain.timed().size(); i++) {
+                    TimedFilter filter = chain.timed().get(i);
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    stats.put("traffic", api ? "api" : "web");
+                    stats.put("order", i);
+                    stats.put("filter", filter.name);
+                    (api ? filter.api : filter.web).describe(stats);
+                    result.add(stats);
+                }
+            }
+        }
+        return result;
+    }
+
+    private TimedChain timed(List<Filter> filters) {
+        // FilterChainProxy передает один и тот же список цепочки на каждый запрос
+        for (TimedChain chain : chains) {
+            if (chain.filters() == filters) {
+                return chain;
+            }
+        }
+        synchronized (this) {
+            for (TimedChain chain : chains) {
+                if (chain.filters() == filters) {
+                    return chain;
+                }
+            }
+            List<TimedFilter> timed = new ArrayList<>(filters.size());
+            for (Filter filter : filters) {
+                timed.add(new TimedFilter(filter));
+            }
+            List<TimedFilter> copy = List.copyOf(timed);
+            TimedChain chain = new TimedChain(filters, copy, Collections.unmodifiableList(copy));
+            if (chains.length < MAX_CHAINS) {
+                TimedChain[] updated = Arrays.copyOf(chains, chains.length + 1);
+                updated[chains.length] = chain;
+                chains = updated;
+            }
+            return chain;
+        }
+    }
+
+    private static boolean isApi(ServletRequest request) {
+        return request instanceof HttpServletRequest http && http.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    private static final class TimedFilter implements Filter {
+
+        private final Filter filter;
+        private final String name;
+        private final LatencyHistogram api = new LatencyHistogram();
+        private final LatencyHistogram web = new LatencyHistogram();
+
+        TimedFilter(Filter filter) {
+            this.filter = filter;
+            this.name = filter.getClass().getSimpleName();
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            Downstream downstream = new Downstream(chain);
+            long start = System.nanoTime();
+            try {
+                filter.doFilter(request, response, downstream);
+            } finally {
+                long self = System.nanoTime() - start - downstream.elapsedNanos;
+                (isApi(request) ? api : web).record(self);
+            }
+        }
+    }
+
+    /**
+     * Остаток цепочки после фильтра: его время не относится к фильтру
+     */
+    private static final class Downstream implements FilterChain {
+
+        private final FilterChain chain;
+        private long elapsedNanos;
+
+        Downstream(FilterChain chain) {
+            this.chain = chain;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            long start = System.nanoTime();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                elapsedNanos += System.nanoTime() - start;
+            }
+        }
+    }
+}
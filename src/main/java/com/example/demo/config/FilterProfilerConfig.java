@@ -0,0 +1,40 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.web.FilterChainProxy;
+
+/**
+ * Профилирование цепочки фильтров безопасности (включается security.filter-profiler.enabled=true)
+ * 
+ * FilterChainProxy получает FilterChainProfiler вместо стандартного
+ * FilterChainDecorator - каждый фильтр замеряется отдельно.
+ * Статистика доступна в /api/admin/filter-latency
+ */
+@Configuration
+@ConditionalOnProperty(name = "security.filter-profiler.enabled", havingValue = "true")
+public class FilterProfilerConfig {
+
+    @Bean
+    public static FilterChainProfiler filterChainProfiler() {
+        return new FilterChainProfiler();
+    }
+
+    /**
+     * static - BeanPostProcessor должен создаваться раньше остальных бинов
+     */
+    @Bean
+    public static BeanPostProcessor filterChainProfilerPostProcessor(FilterChainProfiler profiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof FilterChainProxy filterChainProxy) {
+                    filterChainProxy.setFilterChainDecorator(profiler);
+                }
+                return bean;
+            }
+        };
+    }
+}
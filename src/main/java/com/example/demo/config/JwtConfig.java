@@ -1,10 +1,8 @@
 package com.example.demo.config;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.OctetSequenceKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
+import com.example.demo.security.Hs512Jws;
+import com.example.demo.security.Hs512JwtEncoder;
+import com.example.demo.security.Hs512Mac;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,7 +10,6 @@ import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -25,9 +22,12 @@ import java.nio.charset.StandardCharsets;
  * JOSE
  * 
  * Использует:
- * - NimbusJwtEncoder с JWKSource для создания токенов
+ * - Hs512JwtEncoder (сериализация Nimbus, формат как у NimbusJwtEncoder) для создания токенов
  * - NimbusJwtDecoder с секретным ключом для декодирования токенов
  * - MacAlgorithm.HS512 для подписи токенов (HMAC-SHA512)
+ * 
+ * HMAC в обе стороны считается через Hs512Mac - Mac с заранее
+ * инициализированным ключом вместо Mac.getInstance + init на каждый токен
  */
 @Configuration
 public class JwtConfig {
@@ -39,8 +39,11 @@ public class JwtConfig {
      * Создание секретного ключа для подписи JWT токенов
      * Используется HMAC-SHA512 алгоритм
      * Для HS512 нужен ключ минимум 512 бит (64 байта)
+     * 
+     * Тот же ключ подписывает компактные токены (CompactTokenCodec)
      */
-    private SecretKey getSecretKey() {
+    @Bean
+    public SecretKey jwtSecretKey() {
         byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         // Для HS512 нужен ключ минимум 512 бит (64 байта)
         if (keyBytes.length < 64) {
@@ -56,39 +59,36 @@ public class JwtConfig {
         return new SecretKeySpec(keyBytes, "HmacSHA512");
     }
 
+    /**
+     * Переиспользуемый HMAC-SHA512 для подписи и проверки JWS и компактных токенов
+     */
+    @Bean
+    public Hs512Mac jwtMac() {
+        return new Hs512Mac(jwtSecretKey());
+    }
+
     /**
      * JwtEncoder для создания JWT токенов
-     * Использует NimbusJwtEncoder с JWKSource
      * 
-     * Для симметричного шифрования (shared secret) используется OctetSequenceKey
+     * kid "jwt-signing-key" в заголовке - как у прежнего NimbusJwtEncoder с OctetSequenceKey
      */
     @Bean
     public JwtEncoder jwtEncoder() {
-        SecretKey secretKey = getSecretKey();
-
-        // Создаем OctetSequenceKey из секретного ключа
-        OctetSequenceKey octetKey = new OctetSequenceKey.Builder(secretKey)
-                .keyID("jwt-signing-key")
-                .build();
-
-        // Создаем JWKSet с нашим ключом
-        JWKSet jwkSet = new JWKSet(octetKey);
-
-        // Создаем JWKSource для NimbusJwtEncoder
-        JWKSource<SecurityContext> jwkSource = new ImmutableJWKSet<>(jwkSet);
-
-        return new NimbusJwtEncoder(jwkSource);
+        return new Hs512JwtEncoder(new Hs512Jws(jwtMac()), "jwt-signing-key");
     }
 
     /**
      * JwtDecoder для декодирования и валидации JWT токенов
-     * Использует NimbusJwtDecoder с секретным ключом и алгоритмом HS512
+     * Использует NimbusJwtDecoder с секретным ключом и алгоритмом HS512,
+     * подпись проверяет Hs512Jws вместо создаваемого на каждый токен MACVerifier
      */
     @Bean
     public JwtDecoder jwtDecoder() {
-        SecretKey secretKey = getSecretKey();
+        SecretKey secretKey = jwtSecretKey();
+        Hs512Jws verifier = new Hs512Jws(jwtMac());
         return NimbusJwtDecoder.withSecretKey(secretKey)
                 .macAlgorithm(MacAlgorithm.HS512)
+                .jwtProcessorCustomizer(processor -> processor.setJWSVerifierFactory(verifier))
                 .build();
     }
 }
@@ -0,0 +1,63 @@
+package com.example.demo.config;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек с интервалами - степенями двойки в микросекундах
+ * (1 мкс ... ~35 минут)
+ * 
+ * Запись - один инкремент AtomicLongArray и LongAdder, без блокировок
+ * и выделения памяти. Используется StatementLatencyRecorder и FilterChainProfiler.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMicros = new LongAdder();
+
+    public void record(long elapsedNanos) {
+        long micros = Math.max(1, elapsedNanos / 1_000);
+        int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        totalMicros.add(micros);
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    /**
+     * Добавляет в stats count, totalMicros, p50Micros, p99Micros, maxMicros
+     */
+    public void describe(Map<String, Object> stats) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        stats.put("count", count);
+        stats.put("totalMicros", totalMicros.sum());
+        stats.put("p50Micros", percentile(counts, count, 0.50));
+        stats.put("p99Micros", percentile(counts, count, 0.99));
+        stats.put("maxMicros", percentile(counts, count, 1.0));
+    }
+
+    /**
+     * Верхняя граница интервала, в который попадает перцентиль
+     */
+    private static long percentile(long[] counts, long count, double quantile) {
+        long rank = (long) Math.ceil(count * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return (2L << i) - 1;
+            }
+        }
+        return 0;
+    }
+}
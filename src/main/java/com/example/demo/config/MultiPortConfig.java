@@ -0,0 +1,84 @@
+package com.example.demo.config;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * Дополнительные порты из movie.ports
+ * 
+ * Основной порт (server.port) принимает весь трафик. Каждый дополнительный
+ * порт - отдельный коннектор Tomcat со своим пулом потоков, поэтому
+ * админка и массовые API клиенты не занимают потоки пользовательского порта.
+ * 
+ * Настройки порта (по умолчанию - ALL, 50 потоков):
+ * connector.8181.traffic=api|ui|admin|all
+ * connector.8181.max-threads=50
+ * connector.8181.min-spare-threads=5
+ * 
+ * Пути порта класса admin - Ant-шаблоны из connector.admin-paths
+ * (новые страницы и API администратора добавляются туда, а не в TrafficClass)
+ */
+@Configuration
+public class MultiPortConfig {
+
+    @Value("${movie.ports:}")
+    private List<Integer> ports;
+
+    @Value("${server.port:8080}")
+    private int mainPort;
+
+    @Value("${connector.admin-paths:/admin/**,/api/admin/**,/home/**,/login,/logout,/user/dashboard,/css/**,/js/**}")
+    private List<String> adminPaths;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ConnectorRegistry connectorRegistry;
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> additionalConnectorsCustomizer() {
+        return factory -> {
+            connectorRegistry.register(mainPort, TrafficClass.ALL, adminPaths);
+            for (Integer port : ports) {
+                if (port == mainPort) {
+                    continue;
+                }
+                String prefix = "connector." + port + ".";
+                TrafficClass trafficClass = TrafficClass.fromString(
+                        environment.getProperty(prefix + "traffic", "all"));
+
+                Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+                connector.setPort(port);
+                if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+                    protocol.setMaxThreads(environment.getProperty(prefix + "max-threads", Integer.class, 50));
+                    protocol.setMinSpareThreads(environment.getProperty(prefix + "min-spare-threads", Integer.class, 5));
+                }
+                factory.addAdditionalTomcatConnectors(connector);
+                connectorRegistry.register(port, trafficClass, adminPaths);
+            }
+        };
+    }
+
+    /**
+     * Фильтр класса трафика - раньше всех остальных фильтров
+     */
+    @Bean
+    public FilterRegistrationBean<ConnectorTrafficFilter> connectorTrafficFilter() {
+        FilterRegistrationBean<ConnectorTrafficFilter> registration =
+                new FilterRegistrationBean<>(new ConnectorTrafficFilter(connectorRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
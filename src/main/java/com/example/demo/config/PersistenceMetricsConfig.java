@@ -0,0 +1,47 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Замер времени SQL запросов (включается persistence.slow-query.enabled=true)
+ * 
+ * Пулы соединений оборачиваются в TimedDataSource, прокси над ними
+ * (DelegatingDataSource, например маршрутизация на реплику) - нет,
+ * чтобы каждый запрос замерялся один раз.
+ * Статистика доступна в /api/admin/statement-latency
+ */
+@Configuration
+@ConditionalOnProperty(name = "persistence.slow-query.enabled", havingValue = "true")
+public class PersistenceMetricsConfig {
+
+    @Bean
+    public static StatementLatencyRecorder statementLatencyRecorder(
+            @Value("${persistence.slow-query.threshold:200ms}") Duration threshold,
+            @Value("${persistence.slow-query.max-statements:500}") int maxStatements) {
+        return new StatementLatencyRecorder(threshold.toNanos(), maxStatements);
+    }
+
+    /**
+     * static - BeanPostProcessor должен создаваться раньше остальных бинов
+     */
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor(StatementLatencyRecorder recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                    return new TimedDataSource(dataSource, recorder);
+                }
+                return bean;
+            }
+        };
+    }
+}
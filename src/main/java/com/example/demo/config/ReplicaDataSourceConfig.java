@@ -0,0 +1,76 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Чтение с реплики (включается свойством replica.datasource.url)
+ * 
+ * DataSource приложения - LazyConnectionDataSourceProxy:
+ * - read-only транзакции (@Transactional(readOnly = true), find* методы
+ *   Spring Data репозиториев) получают соединение ReplicaRoutingDataSource
+ * - все остальные - соединение основной БД (spring.datasource.*)
+ * 
+ * Физическое соединение берется при первом запросе, когда флаг read-only
+ * транзакции уже известен.
+ * 
+ * Пример (две локальные H2):
+ * replica.datasource.url=jdbc:h2:mem:replicadb
+ * replica.datasource.username=sa
+ */
+@Configuration
+@ConditionalOnProperty(name = "replica.datasource.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("replica.datasource.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${replica.datasource.url}") String url,
+            @Value("${replica.datasource.username:}") String username,
+            @Value("${replica.datasource.password:}") String password) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    @Bean(defaultCandidate = false)
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Qualifier("primaryDataSource") DataSource primary,
+            ReplicaLagGuard guard,
+            @Value("${replica.lag-query:}") String lagQuery,
+            @Value("${replica.max-lag:2s}") Duration maxLag) {
+        return new ReplicaRoutingDataSource(replica, primary, guard, lagQuery, maxLag.toMillis() / 1000.0);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaRoutingDataSource") DataSource readOnly) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(readOnly);
+        return dataSource;
+    }
+}
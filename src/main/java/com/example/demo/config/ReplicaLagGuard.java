@@ -0,0 +1,176 @@
+package com.example.demo.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Решает, можно ли читать с реплики (ReplicaRoutingDataSource)
+ * 
+ * Чтение идет на основную БД, если:
+ * 1. Код явно попросил основную БД (onPrimary) - например, проверка
+ *    уникальности имени перед записью
+ * 2. Реплика отстает больше replica.max-lag или недоступна (проверка
+ *    в ReplicaRoutingDataSource)
+ * 
+ * Read-your-writes: после записи по ключу (например, регистрации пользователя)
+ * в течение replica.read-your-writes-window этот ключ читается с основной БД -
+ * только что зарегистрированный пользователь сразу может войти,
+ * даже если реплика еще не получила строку.
+ * 
+ * Карта недавних записей своя на каждом узле. Чтобы следующий запрос того же
+ * клиента, попавший на другой узел, тоже читал с основной БД, запись в рамках
+ * веб-запроса ставит cookie READ_PRIMARY_UNTIL со временем окончания окна.
+ * Маркер привязан к клиенту, а не к ключу: клиент, который сам подделает cookie,
+ * только переведет свои чтения на основную БД, и не дольше одного окна.
+ * Не покрыт случай, когда запись и чтение делают разные клиенты на разных узлах
+ * (админ отключил пользователя) - его закрывает рассылка AccountStatusFeed.
+ * 
+ * Без replica.datasource.url класс ничего не хранит.
+ */
+@Component
+public class ReplicaLagGuard {
+
+    public static final String MARKER_COOKIE = "READ_PRIMARY_UNTIL";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private volatile boolean replicaHealthy = true;
+
+    public ReplicaLagGuard(
+            @Value("${replica.datasource.url:}") String replicaUrl,
+            @Value("${replica.read-your-writes-window:5s}") Duration window) {
+        this.enabled = !replicaUrl.isBlank();
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Можно ли текущему потоку читать с реплики
+     */
+    public boolean canUseReplica() {
+        return replicaHealthy && FORCE_PRIMARY.get() == null;
+    }
+
+    public boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+
+    void setReplicaHealthy(boolean healthy) {
+        this.replicaHealthy = healthy;
+    }
+
+    /**
+     * Запись по ключу выполнена на основной БД
+     */
+    public void markWritten(String key) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (recentWrites.size() > CLEANUP_THRESHOLD) {
+            recentWrites.values().removeIf(expiresAt -> now - expiresAt > 0);
+        }
+        recentWrites.put(key, now + windowNanos);
+        markClient();
+    }
+
+    /**
+     * Была ли запись по ключу в пределах окна read-your-writes
+     */
+    public boolean recentlyWritten(String key) {
+        if (!enabled) {
+            return false;
+        }
+        if (clientWroteRecently()) {
+            return true;
+        }
+        Long expiresAt = recentWrites.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiresAt > 0) {
+            recentWrites.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Маркер записи для других узлов: cookie с временем окончания окна (epoch ms)
+     */
+    private void markClient() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getResponse() == null) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        long windowMillis = TimeUnit.NANOSECONDS.toMillis(windowNanos);
+        Cookie cookie = new Cookie(MARKER_COOKIE, Long.toString(System.currentTimeMillis() + windowMillis));
+        String contextPath = request.getContextPath();
+        cookie.setPath(contextPath.isEmpty() ? "/" : contextPath);
+        cookie.setMaxAge((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(windowMillis + 999)));
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setAttribute("SameSite", "Lax");
+        attributes.getResponse().addCookie(cookie);
+    }
+
+    /**
+     * Клиент текущего запроса писал в пределах окна (на этом или другом узле)
+     * Значение дальше одного окна в будущем не принимается
+     */
+    private boolean clientWroteRecently() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        Cookie[] cookies = attributes.getRequest().getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (MARKER_COOKIE.equals(cookie.getName())) {
+                long until;
+                try {
+                    until = Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                long left = until - System.currentTimeMillis();
+                return left > 0 && left <= TimeUnit.NANOSECONDS.toMillis(windowNanos);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Выполнение с чтением только с основной БД
+     * 
+     * Соединение берется при первом запросе (LazyConnectionDataSourceProxy),
+     * поэтому вызов работает и внутри уже открытой read-only транзакции,
+     * если в ней еще не было запросов.
+     */
+    public <T> T onPrimary(Supplier<T> action) {
+        if (FORCE_PRIMARY.get() != null) {
+            return action.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+}
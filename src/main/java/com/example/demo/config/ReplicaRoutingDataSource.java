@@ -0,0 +1,67 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Источник соединений для read-only транзакций: реплика или, если ReplicaLagGuard
+ * запрещает чтение с реплики, основная БД
+ * 
+ * Отставание проверяется запросом replica.lag-query (секунды отставания)
+ * раз в replica.lag-check-interval. Если отставание больше replica.max-lag
+ * или запрос упал, чтения идут на основную БД до следующей успешной проверки.
+ * Без replica.lag-query реплика считается всегда актуальной
+ * (например, две локальные H2 в тестах).
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+
+    private final DataSource primary;
+    private final ReplicaLagGuard guard;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    public ReplicaRoutingDataSource(DataSource replica, DataSource primary, ReplicaLagGuard guard,
+                                    String lagQuery, double maxLagSeconds) {
+        super(replica);
+        this.primary = primary;
+        this.guard = guard;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guard.canUseReplica() ? super.getConnection() : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guard.canUseReplica()
+                ? super.getConnection(username, password)
+                : primary.getConnection(username, password);
+    }
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval:2s}")
+    public void checkLag() {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return;
+        }
+        boolean healthy;
+        try {
+            Double lag = new JdbcTemplate(obtainTargetDataSource()).queryForObject(lagQuery, Double.class);
+            healthy = lag != null && lag <= maxLagSeconds;
+        } catch (RuntimeException e) {
+            healthy = false;
+        }
+        if (healthy != guard.isReplicaHealthy()) {
+            System.out.println(healthy ? "Реплика снова используется для чтения"
+                    : "Реплика отстает или недоступна - чтение с основной БД");
+        }
+        guard.setReplicaHealthy(healthy);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import com.example.demo.service.ReminderDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Расписание напоминаний
+ * 
+ * Cron выражения берутся из свойств send.*.reminder и my.task.cron.
+ * Если свойство не задано (например, профиль по умолчанию), используется "-",
+ * и задача не планируется.
+ * 
+ * @Lazy(false) - задачи регистрируются даже в профиле fast с ленивой инициализацией
+ */
+@Configuration
+@EnableScheduling
+@Lazy(false)
+public class SchedulingConfig {
+
+    @Autowired
+    private ReminderDispatcher reminderDispatcher;
+
+    @Scheduled(cron = "${send.morning.reminder:-}")
+    public void morningReminder() {
+        reminderDispatcher.dispatch("morning");
+    }
+
+    @Scheduled(cron = "${send.afternoon.reminder:-}")
+    public void afternoonReminder() {
+        reminderDispatcher.dispatch("afternoon");
+    }
+
+    @Scheduled(cron = "${send.evening.reminder:-}")
+    public void eveningReminder() {
+        reminderDispatcher.dispatch("evening");
+    }
+
+    /**
+     * my.task.cron - последний день месяца (L) в 9:15
+     */
+    @Scheduled(cron = "${my.task.cron:-}")
+    public void monthlyReminder() {
+        reminderDispatcher.dispatch("monthly");
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.demo.config;
 
+import com.example.demo.security.AuditingAccessDeniedHandler;
 import com.example.demo.security.JwtAuthenticationFilter;
-import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.security.SignedCookieRequestCache;
+import com.example.demo.service.TieredUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,23 +13,32 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.writers.CacheControlHeadersWriter;
+import org.springframework.security.web.header.writers.DelegatingRequestMatcherHeaderWriter;
+import org.springframework.security.web.header.writers.StaticHeadersWriter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Основная конфигурация Spring Security
  * 
  * Этот класс демонстрирует:
  * 1. Настройку SecurityFilterChain
- * 2. Различные методы аутентификации (in-memory, JPA, JWT)
+ * 2. Различные методы аутентификации (in-memory, JPA, JWT) через единую
+ *    цепочку TieredUserDetailsService: служебные учетные записи -> кэш -> БД
  * 3. Настройку авторизации (роли, URL patterns)
  * 4. Настройку CSRF защиты
  * 5. Настройку сессий
@@ -41,11 +52,17 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private TieredUserDetailsService userDetailsService;
 
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private AuditingAccessDeniedHandler accessDeniedHandler;
+
+    @Autowired
+    private SignedCookieRequestCache requestCache;
+
     /**
      * SecurityFilterChain - основной фильтр цепочки безопасности
      * 
@@ -91,11 +108,16 @@ public class SecurityConfig {
                 // JWT фильтр будет проверять токен в заголовке Authorization
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
 
+                // Адрес, с которого анонимного пользователя отправили на /login,
+                // хранится в подписанной cookie, а не в сессии
+                .requestCache(cache -> cache.requestCache(requestCache))
+
                 // Настройка формы логина
                 .formLogin(form -> form
                         .loginPage("/login") // Кастомная страница логина
-                        .defaultSuccessUrl("/user/dashboard", true) // Редирект после успешного логина
-                        .failureUrl("/login?error=true") // Редирект при ошибке
+                        // После входа - на сохраненный адрес, если он есть, иначе на dashboard
+                        .defaultSuccessUrl("/user/dashboard")
+                        .failureHandler(loginFailureHandler()) // Редирект при ошибке
                         .permitAll())
 
                 // Настройка logout
@@ -115,21 +137,69 @@ public class SecurityConfig {
 
                 // Настройка исключений
                 .exceptionHandling(exceptions -> exceptions
-                        .accessDeniedPage("/access-denied") // Страница при отказе в доступе
+                        // Страница /access-denied при отказе в доступе + запись в журнал аудита
+                        .accessDeniedHandler(accessDeniedHandler)
                 );
 
         // Для H2 Console (только для разработки) — frameOptions через Customizer (6.1+)
+        // Cache-Control: no-store везде, кроме публичных страниц с ETag (WebConfig):
+        // там браузер хранит страницу и проверяет ее по If-None-Match
+        RequestMatcher etagPages = etagPagesMatcher();
         http.headers(headers -> headers
-                .frameOptions(frameOptions -> frameOptions.sameOrigin()));
+                .frameOptions(frameOptions -> frameOptions.sameOrigin())
+                .cacheControl(cacheControl -> cacheControl.disable())
+                .addHeaderWriter(new DelegatingRequestMatcherHeaderWriter(
+                        new NegatedRequestMatcher(etagPages), new CacheControlHeadersWriter()))
+                .addHeaderWriter(new DelegatingRequestMatcherHeaderWriter(
+                        etagPages, new StaticHeadersWriter("Cache-Control", "private, no-cache"))));
 
         return http.build();
     }
 
+    /**
+     * Страницы, для которых ShallowEtagHeaderFilter отдает ETag и 304
+     * 
+     * private - страница зависит от аутентификации (sec:), общим кэшам ее хранить нельзя
+     */
+    private static RequestMatcher etagPagesMatcher() {
+        PathPatternRequestMatcher.Builder paths = PathPatternRequestMatcher.withDefaults();
+        List<RequestMatcher> matchers = new ArrayList<>();
+        for (String page : WebConfig.ETAG_PAGES) {
+            matchers.add(paths.matcher(page));
+        }
+        return new OrRequestMatcher(matchers);
+    }
+
+    /**
+     * Редирект на /login?error=true без создания сессии
+     * 
+     * Страница логина показывает ошибку по параметру error, исключение
+     * в сессии (SPRING_SECURITY_LAST_EXCEPTION) ей не нужно - неудачные
+     * попытки входа не должны создавать сессии
+     */
+    private static SimpleUrlAuthenticationFailureHandler loginFailureHandler() {
+        SimpleUrlAuthenticationFailureHandler failureHandler = new SimpleUrlAuthenticationFailureHandler("/login?error=true");
+        failureHandler.setAllowSessionCreation(false);
+        return failureHandler;
+    }
+
+    /**
+     * Статика (/css/**, /js/**) обслуживается в обход цепочки фильтров безопасности
+     * 
+     * Файлы публичные (кэширование - см. WebConfig),
+     * поэтому проверка токена, сессии и заголовки безопасности для них - лишняя работа
+     */
+    @Bean
+    public WebSecurityCustomizer staticResourcesCustomizer() {
+        return web -> web.ignoring().requestMatchers("/css/**", "/js/**");
+    }
+
     /**
      * DaoAuthenticationProvider - провайдер аутентификации через UserDetailsService
      * 
      * Демонстрирует:
      * - Использование UserDetailsService для загрузки пользователей
+     *   (TieredUserDetailsService - единственный источник пользователей)
      * - Password encoding при проверке пароля
      */
     @Bean
@@ -160,27 +230,4 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(12); // Strength 12 (рекомендуется)
     }
-
-    /**
-     * In-Memory UserDetailsService для демонстрации
-     * 
-     * Альтернативный способ аутентификации - хранение пользователей в памяти
-     * Полезно для тестирования и простых приложений
-     */
-    @Bean
-    public UserDetailsService inMemoryUserDetailsService() {
-        UserDetails admin = User.builder()
-                .username("admin")
-                .password(passwordEncoder().encode("admin123"))
-                .roles("ADMIN", "USER")
-                .build();
-
-        UserDetails user = User.builder()
-                .username("user")
-                .password(passwordEncoder().encode("user123"))
-                .roles("USER")
-                .build();
-
-        return new InMemoryUserDetailsManager(admin, user);
-    }
 }
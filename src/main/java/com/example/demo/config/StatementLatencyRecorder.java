@@ -0,0 +1,77 @@
+package com.example.demo.config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограммы времени выполнения SQL запросов (TimedDataSource)
+ * 
+ * Ключ - текст SQL в том виде, в котором он передан в prepareStatement
+ * (Hibernate и JdbcTemplate переиспользуют одни и те же строки), поэтому
+ * на каждый запрос - только поиск в ConcurrentHashMap и инкремент счетчиков,
+ * без форматирования строк. Интервалы гистограммы - степени двойки
+ * в микросекундах (LatencyHistogram).
+ * 
+ * Запросы дольше порога считаются медленными; строка в лог пишется
+ * только для них.
+ */
+public class StatementLatencyRecorder {
+
+    private static final String OTHER = "<other>";
+
+    private final long thresholdNanos;
+    private final int maxStatements;
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public StatementLatencyRecorder(long thresholdNanos, int maxStatements) {
+        this.thresholdNanos = thresholdNanos;
+        this.maxStatements = maxStatements;
+    }
+
+    public void record(String sql, long elapsedNanos) {
+        Histogram histogram = histograms.get(sql);
+        if (histogram == null) {
+            // Ограничение числа разных запросов (например, SQL со склеенными значениями)
+            String key = histograms.size() < maxStatements ? sql : OTHER;
+            histogram = histograms.computeIfAbsent(key, k -> new Histogram());
+        }
+        histogram.latency.record(elapsedNanos);
+        if (elapsedNanos >= thresholdNanos) {
+            histogram.slow.increment();
+            System.out.println("Медленный запрос (" + elapsedNanos / 1_000_000 + " мс): " + sql);
+        }
+    }
+
+    /**
+     * Статистика по запросам, самые долгие по суммарному времени - первыми
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        histograms.forEach((sql, histogram) -> result.add(histogram.describe(sql)));
+        result.sort(Comparator.comparingLong((Map<String, Object> m) -> (Long) m.get("totalMicros")).reversed());
+        return result;
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    private static final class Histogram {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder slow = new LongAdder();
+
+        Map<String, Object> describe(String sql) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("sql", sql);
+            stats.put("slow", slow.sum());
+            latency.describe(stats);
+            return stats;
+        }
+    }
+}
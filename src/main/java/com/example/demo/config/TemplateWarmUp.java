@@ -0,0 +1,61 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.IOException;
+
+/**
+ * Прогрев кэша Thymeleaf при старте
+ * 
+ * Включается вместе с spring.thymeleaf.cache=true (профиль prod).
+ * Каждый шаблон из classpath:/templates/ разбирается один раз до первого
+ * запроса, поэтому первый пользователь не платит за парсинг
+ * user-dashboard.html, admin-panel.html и т.д.
+ * 
+ * Шаблоны обрабатываются с пустым контекстом вне HTTP запроса, поэтому
+ * выражения sec: и ссылки @{...} завершаются ошибкой. Это ожидаемо:
+ * Thymeleaf кладет разобранную модель в кэш до обработки, и она
+ * переиспользуется при настоящем рендеринге.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.thymeleaf.cache", havingValue = "true")
+public class TemplateWarmUp {
+
+    private static final String TEMPLATES_PATTERN = "classpath:/templates/*.html";
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() throws IOException {
+        Resource[] templates = new PathMatchingResourcePatternResolver().getResources(TEMPLATES_PATTERN);
+        int warmed = 0;
+        for (Resource template : templates) {
+            String filename = template.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String name = filename.substring(0, filename.length() - ".html".length());
+            try {
+                templateEngine.process(name, new Context());
+            } catch (TemplateProcessingException e) {
+                // Шаблон уже разобран и закэширован, ошибка только при обработке
+            } catch (RuntimeException e) {
+                // Диалекты (например sec:) бросают свои исключения вне запроса;
+                // прогрев не должен ронять старт приложения
+                System.out.println("Прогрев шаблона " + name + " завершился ошибкой: " + e);
+            }
+            warmed++;
+        }
+        System.out.println("Прогрето шаблонов Thymeleaf: " + warmed);
+    }
+}
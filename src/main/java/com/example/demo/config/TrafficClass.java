@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Класс трафика, который принимает коннектор (порт)
+ * 
+ * ALL - все запросы (основной порт server.port)
+ * API - только REST API /api/**
+ * UI - страницы, без /api/** и /admin/**
+ * ADMIN - пути из connector.admin-paths (Ant-шаблоны): админка, API администратора
+ *         (/api/admin/**, /home/** PeopleController), логин и статика для нее
+ */
+public enum TrafficClass {
+    ALL,
+    API,
+    UI,
+    ADMIN;
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * Проверка пути запроса для порта этого класса
+     * 
+     * @param adminPaths шаблоны путей класса ADMIN, для остальных классов не используются
+     */
+    public Predicate<String> pathFilter(List<String> adminPaths) {
+        return switch (this) {
+            case ALL -> path -> true;
+            case API -> path -> path.startsWith("/api/");
+            case UI -> path -> !path.startsWith("/api/") && !path.startsWith("/admin/");
+            case ADMIN -> {
+                String[] patterns = adminPaths.toArray(String[]::new);
+                yield path -> matchesAny(patterns, path);
+            }
+        };
+    }
+
+    private static boolean matchesAny(String[] patterns, String path) {
+        for (String pattern : patterns) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static TrafficClass fromString(String value) {
+        return value == null ? ALL : valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
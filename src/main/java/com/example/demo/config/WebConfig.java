@@ -1,20 +1,73 @@
 package com.example.demo.config;
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
 
 /**
  * Конфигурация Web MVC
- * Настройка простых view controllers
+ * Настройка простых view controllers и HTTP кэширования
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
-    
+
+    /**
+     * Каталоги статики
+     */
+    static final String[] STATIC_DIRECTORIES = {"css", "js"};
+
+    /**
+     * Публичные страницы с ETag (SecurityConfig не ставит для них no-store)
+     */
+    static final String[] ETAG_PAGES = {"/", "/index", "/public/*"};
+
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
         registry.addViewController("/").setViewName("index");
         registry.addViewController("/login").setViewName("login");
         registry.addViewController("/access-denied").setViewName("access-denied");
     }
+
+    /**
+     * Статика с повторной проверкой в браузере
+     * 
+     * Шаблоны не ссылаются на статику через @{...}, поэтому URL файлов
+     * не версионируются и не меняются при изменении содержимого -
+     * кэшировать их на год (immutable) нельзя. Браузер хранит копию,
+     * но перед использованием проверяет ее по Last-Modified и получает 304.
+     * 
+     * EncodedResourceResolver отдает заранее сжатые при сборке варианты
+     * (style.css.br, style.css.gz) по заголовку Accept-Encoding,
+     * поэтому одни и те же байты не сжимаются на каждый запрос.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : STATIC_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setCacheControl(CacheControl.noCache().cachePublic())
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver());
+        }
+    }
+
+    /**
+     * Строгий ETag и ответ 304 для публичных страниц
+     * 
+     * ETag считается по телу ответа, поэтому учитывает и данные,
+     * которые шаблон показывает в зависимости от аутентификации (sec:)
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> publicPagesEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(ETAG_PAGES);
+        return registration;
+    }
 }
@@ -1,5 +1,10 @@
 package com.example.demo.controller;
 
+import com.example.demo.service.UserExportService;
+import com.example.demo.service.UsernameIndex;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -7,6 +12,11 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * Контроллер для администраторов
@@ -18,6 +28,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RequestMapping("/admin")
 public class AdminController {
     
+    @Autowired
+    private UsernameIndex usernameIndex;
+    
+    @Autowired
+    private UserExportService userExportService;
+    
     /**
      * Админ панель
      * Доступна только пользователям с ролью ADMIN (настроено в SecurityConfig)
@@ -41,6 +57,47 @@ public class AdminController {
         return "admin-users";
     }
     
+    /**
+     * Type-ahead поиск пользователей по имени
+     * Обслуживается триграммным индексом в памяти, без запросов к БД
+     * 
+     * @param q начало имени или подстрока
+     * @param mode prefix (по умолчанию) или contains
+     */
+    @GetMapping("/users/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public List<UsernameIndex.Match> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "prefix") String mode,
+            @RequestParam(defaultValue = "20") int limit) {
+        int max = Math.min(limit, 100);
+        return "contains".equalsIgnoreCase(mode)
+                ? usernameIndex.searchContains(q, max)
+                : usernameIndex.searchPrefix(q, max);
+    }
+    
+    /**
+     * Выгрузка всех пользователей с ролями для аудита
+     * Пишется в ответ потоково, объем памяти не зависит от числа пользователей
+     * 
+     * @param format csv (по умолчанию) или ndjson
+     */
+    @GetMapping("/users/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportUsers(@RequestParam(defaultValue = "csv") String format,
+                            HttpServletResponse response) throws IOException {
+        UserExportService.Format exportFormat = UserExportService.Format.fromString(format);
+        boolean ndjson = exportFormat == UserExportService.Format.NDJSON;
+
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=users." + (ndjson ? "ndjson" : "csv"));
+
+        userExportService.export(exportFormat, response.getOutputStream());
+    }
+    
     /**
      * Настройки системы
      * Демонстрирует проверку нескольких ролей
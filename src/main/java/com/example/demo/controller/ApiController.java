@@ -1,14 +1,24 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.ConnectorRegistry;
+import com.example.demo.config.FilterChainProfiler;
+import com.example.demo.config.StatementLatencyRecorder;
+import com.example.demo.dto.UserInfoResponse;
+import com.example.demo.security.SecurityAuditLog;
+import com.example.demo.service.TieredUserDetailsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,51 +27,120 @@ import java.util.Map;
  * 1. REST эндпоинты с Spring Security
  * 2. Возврат JSON вместо HTML
  * 3. Использование @PreAuthorize для API
+ * 4. Проверку ролей по битовой маске из JWT (RoleMaskAuthorizer)
  */
 @RestController
 @RequestMapping("/api")
 public class ApiController {
     
+    /**
+     * Неизменные тела ответов, сериализованные один раз
+     * (на запрос не создаются ни Map, ни строки JSON)
+     * ADMIN_STATS_BODY отдает и реактивный вариант (ReactiveJwtController)
+     */
+    static final byte[] PUBLIC_API_BODY =
+        "{\"message\":\"Это публичный API эндпоинт\",\"status\":\"success\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    
+    public static final byte[] ADMIN_STATS_BODY =
+        "{\"totalUsers\":100,\"activeUsers\":75,\"message\":\"Статистика доступна только администраторам\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    
+    @Autowired
+    private ConnectorRegistry connectorRegistry;
+    
+    @Autowired
+    private TieredUserDetailsService userDetailsService;
+    
+    @Autowired
+    private SecurityAuditLog auditLog;
+    
+    @Autowired(required = false)
+    private StatementLatencyRecorder statementLatencyRecorder;
+
+    @Autowired(required = false)
+    private FilterChainProfiler filterChainProfiler;
+    
     /**
      * Публичный API эндпоинт
      */
     @GetMapping("/public")
-    public ResponseEntity<Map<String, String>> publicApi() {
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Это публичный API эндпоинт");
-        response.put("status", "success");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> publicApi() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(PUBLIC_API_BODY);
     }
     
     /**
      * Защищенный API эндпоинт для пользователей
      */
     @GetMapping("/user/info")
-    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<Map<String, Object>> userInfo() {
+    @PreAuthorize("@roleMask.hasAnyRole(authentication, 'USER', 'ADMIN')")
+    public ResponseEntity<UserInfoResponse> userInfo() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("username", auth.getName());
-        response.put("authorities", auth.getAuthorities().stream()
-            .map(a -> a.getAuthority())
-            .toList());
-        response.put("authenticated", auth.isAuthenticated());
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new UserInfoResponse(
+            auth.getName(),
+            auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+            auth.isAuthenticated()));
     }
     
     /**
      * Защищенный API эндпоинт для администраторов
      */
     @GetMapping("/admin/stats")
-    @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> adminStats() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("totalUsers", 100);
-        response.put("activeUsers", 75);
-        response.put("message", "Статистика доступна только администраторам");
-        
-        return ResponseEntity.ok(response);
+    @PreAuthorize("@roleMask.hasRole(authentication, 'ADMIN')")
+    public ResponseEntity<byte[]> adminStats() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(ADMIN_STATS_BODY);
+    }
+    
+    /**
+     * Метрики коннекторов по портам (server.port и movie.ports)
+     */
+    @GetMapping("/admin/connectors")
+    @PreAuthorize("@roleMask.hasRole(authentication, 'ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> connectorStats() {
+        return ResponseEntity.ok(connectorRegistry.snapshot());
+    }
+    
+    /**
+     * Сколько запросов пользователей обслужил каждый уровень TieredUserDetailsService
+     */
+    @GetMapping("/admin/user-lookups")
+    @PreAuthorize("@roleMask.hasRole(authentication, 'ADMIN')")
+    public ResponseEntity<Map<TieredUserDetailsService.Tier, Long>> userLookupStats() {
+        return ResponseEntity.ok(userDetailsService.getTierHits());
+    }
+    
+    /**
+     * Счетчики журнала аудита безопасности (в том числе отброшенные при переполнении события)
+     */
+    @GetMapping("/admin/audit-stats")
+    @PreAuthorize("@roleMask.hasRole(authentication, 'ADMIN')")
+    public ResponseEntity<Map<String, Long>> auditStats() {
+        return ResponseEntity.ok(auditLog.getStats());
+    }
+    
+    /**
+     * Гистограммы времени SQL запросов (только при persistence.slow-query.enabled=true)
+     */
+    @GetMapping("/admin/statement-latency")
+    @PreAuthorize("@roleMask.hasRole(authentication, 'ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> statementLatency() {
+        if (statementLatencyRecorder == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(statementLatencyRecorder.snapshot());
+    }
+
+    /**
+     * Собственное время каждого фильтра цепочки безопасности, отдельно для /api/** и остальных запросов
+     * Доступно при security.filter-profiler.enabled=true
+     */
+    @GetMapping("/admin/filter-latency")
+    @PreAuthorize("@roleMask.hasRole(authentication, 'ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> filterLatency() {
+        if (filterChainProfiler == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(filterChainProfiler.snapshot());
     }
 }
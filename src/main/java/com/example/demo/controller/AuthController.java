@@ -1,9 +1,15 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.ReplicaLagGuard;
 import com.example.demo.entity.Role;
 import com.example.demo.entity.User;
 import com.example.demo.repository.RoleRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.RoleMaskRegistry;
+import com.example.demo.security.SecurityAuditLog;
+import com.example.demo.security.SecurityEvent;
+import com.example.demo.service.UsernameIndex;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
@@ -34,6 +40,18 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private UsernameIndex usernameIndex;
+    
+    @Autowired
+    private SecurityAuditLog auditLog;
+    
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+    
+    @Autowired
+    private RoleMaskRegistry roleMaskRegistry;
+    
     /**
      * Страница регистрации
      */
@@ -49,10 +67,12 @@ public class AuthController {
     public String register(
             @RequestParam String username,
             @RequestParam String password,
+            HttpServletRequest request,
             Model model) {
         
         // Проверка существования пользователя
-        if (userRepository.existsByUsername(username)) {
+        // Проверка на основной БД: реплика может еще не знать о только что занятом имени
+        if (replicaLagGuard.onPrimary(() -> userRepository.existsByUsername(username))) {
             model.addAttribute("error", "Пользователь с таким именем уже существует");
             return "register";
         }
@@ -66,8 +86,10 @@ public class AuthController {
         // Назначение роли USER по умолчанию
         Role userRole = roleRepository.findByName("USER")
             .orElseGet(() -> {
-                Role role = new Role("USER");
-                return roleRepository.save(role);
+                Role role = roleRepository.save(new Role("USER"));
+                // Новая роль должна попадать в маску токенов
+                roleMaskRegistry.refresh();
+                return role;
             });
         
         Set<Role> roles = new HashSet<>();
@@ -76,6 +98,17 @@ public class AuthController {
         
         userRepository.save(user);
         
+        // Вход сразу после регистрации читает пользователя с основной БД
+        replicaLagGuard.markWritten(user.getUsername());
+        
+        // Новый пользователь сразу доступен в поиске админки
+        usernameIndex.add(user.getId(), user.getUsername());
+        
+        // Имя могло принадлежать удаленному пользователю: его отзыв в DisabledPrincipalRegistry
+        // остается, старые токены не принимаются, новые (выданные позже отзыва) - принимаются
+        
+        auditLog.record(SecurityEvent.REGISTRATION, user.getUsername(), request.getRemoteAddr(), null);
+        
         model.addAttribute("success", "Регистрация успешна! Теперь вы можете войти.");
         return "login";
     }
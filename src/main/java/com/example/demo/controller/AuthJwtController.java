@@ -1,14 +1,19 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.IntrospectionRequest;
+import com.example.demo.dto.IntrospectionResponse;
 import com.example.demo.dto.JwtResponse;
 import com.example.demo.dto.LoginRequest;
 import com.example.demo.security.JwtTokenProvider;
-import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.security.TokenIntrospectionService;
+import com.example.demo.security.TokenFormat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,6 +21,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.stream.Collectors;
+
 /**
  * Контроллер для JWT аутентификации
  * 
@@ -38,12 +45,12 @@ public class AuthJwtController {
     private JwtTokenProvider tokenProvider;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private TokenIntrospectionService introspectionService;
 
     /**
      * Эндпоинт для аутентификации и получения JWT токена
      * 
-     * @param loginRequest запрос с username и password
+     * @param loginRequest запрос с username, password и необязательным tokenFormat
      * @return JWT токен и информация о пользователе
      */
     @PostMapping("/login")
@@ -58,15 +65,16 @@ public class AuthJwtController {
             // Устанавливаем аутентификацию в SecurityContext
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            // Генерируем JWT токен
-            String jwt = tokenProvider.generateToken(authentication);
+            // Генерируем токен в формате, запрошенном клиентом (JWS или компактный)
+            String jwt = tokenProvider.generateToken(authentication,
+                    TokenFormat.fromString(loginRequest.getTokenFormat()));
 
             // Получаем информацию о пользователе
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            // joining - один StringBuilder (reduce со сложением строк копировал строку на каждой роли)
             String authorities = authentication.getAuthorities().stream()
-                    .map(a -> a.getAuthority())
-                    .reduce((a, b) -> a + "," + b)
-                    .orElse("");
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.joining(","));
 
             // Возвращаем токен и информацию о пользователе
             return ResponseEntity.ok(new JwtResponse(
@@ -96,4 +104,26 @@ public class AuthJwtController {
 
         return ResponseEntity.badRequest().body("Токен невалиден или отсутствует");
     }
+
+    /**
+     * Пакетная проверка токенов для внутренних сервисов
+     * 
+     * Пример: POST /api/auth/introspect {"tokens": ["eyJ...", "c1...."]}
+     * Ответ: {"results": [{"active": true, "sub": "admin", "authorities": [...], "iat": ..., "exp": ..., "format": "jws"},
+     *                     {"active": false}]}
+     * 
+     * Доступно сервисным учетным записям (роль SERVICE) и администраторам
+     * 
+     * @param request токены, не больше security.introspection.max-batch
+     * @return результат для каждого токена в порядке запроса
+     */
+    @PostMapping("/introspect")
+    @PreAuthorize("hasAnyRole('SERVICE', 'ADMIN')")
+    public ResponseEntity<?> introspect(@RequestBody IntrospectionRequest request) {
+        if (request.tokens() == null || request.tokens().size() > introspectionService.getMaxBatch()) {
+            return ResponseEntity.badRequest()
+                    .body("Ожидается от 0 до " + introspectionService.getMaxBatch() + " токенов");
+        }
+        return ResponseEntity.ok(new IntrospectionResponse(introspectionService.introspect(request.tokens())));
+    }
 }
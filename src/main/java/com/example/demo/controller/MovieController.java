@@ -0,0 +1,47 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.Movie;
+import com.example.demo.service.MovieCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST API каталога фильмов
+ * 
+ * Возвращает CompletableFuture - поток Tomcat не блокируется,
+ * пока идет запрос к OMDb
+ */
+@RestController
+@RequestMapping("/api/movies")
+public class MovieController {
+
+    @Autowired
+    private MovieCatalogService movieCatalogService;
+
+    /**
+     * Фильм по названию
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<Movie>> byTitle(@RequestParam String title) {
+        return movieCatalogService.findByTitle(title)
+                .thenApply(movie -> movie.map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build()))
+                .exceptionally(e -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    /**
+     * Жанры из настроек movie.genres
+     */
+    @GetMapping("/genres")
+    public ResponseEntity<List<String>> genres() {
+        return ResponseEntity.ok(movieCatalogService.getGenres());
+    }
+}
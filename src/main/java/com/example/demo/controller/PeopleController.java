@@ -0,0 +1,139 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AccountStatusService;
+import com.example.demo.service.TieredUserDetailsService;
+import com.example.demo.service.UserSearchService;
+import com.example.demo.service.UsernameIndex;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * API таблицы пользователей для static/js/script.js
+ * 
+ * Демонстрирует:
+ * 1. Серверный поиск и сортировку вместо обработки всей таблицы в браузере
+ * 2. Keyset пагинацию (параметр cursor)
+ * 3. Потоковую запись JSON без загрузки результата в память
+ */
+@RestController
+@RequestMapping("/home")
+public class PeopleController {
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private TieredUserDetailsService userDetailsService;
+
+    @Autowired
+    private AccountStatusService accountStatusService;
+
+    /**
+     * Поиск пользователей
+     * 
+     * Пример: /home/people?query=adm&field=username&sort=-username&limit=50
+     * Следующая страница: тот же запрос с cursor=значение поля "next"
+     */
+    @GetMapping("/people")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void people(
+            @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "username") String field,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + UserSearchService.DEFAULT_LIMIT) int limit,
+            HttpServletResponse response) throws IOException {
+
+        UserSearchService.Match matchMode = "contains".equalsIgnoreCase(match)
+                ? UserSearchService.Match.CONTAINS
+                : UserSearchService.Match.PREFIX;
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try {
+            userSearchService.search(query, field, matchMode, sort, cursor, limit, response.getOutputStream());
+        } catch (IllegalArgumentException e) {
+            // Неверные sort/cursor/query обнаруживаются до начала записи ответа
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Удаление пользователя
+     * 
+     * Удаление строки и запись отзыва токенов - одна транзакция.
+     * Индекс имен и кеш пользователей обновляются после коммита:
+     * при откате пользователь остается и в поиске, и в кеше
+     */
+    @DeleteMapping("/api/delete/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
+    public ResponseEntity<String> delete(@PathVariable Long id) {
+        Optional<User> user = userRepository.findById(id);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String username = user.get().getUsername();
+        userRepository.delete(user.get());
+        accountStatusService.deleted(username);
+        afterCommit(() -> {
+            usernameIndex.remove(id);
+            userDetailsService.evict(username);
+        });
+        return ResponseEntity.ok("Пользователь удален: " + id);
+    }
+
+    /**
+     * Включение и отключение учетной записи
+     * Действует на всех узлах в пределах security.account-status.poll-interval
+     * 
+     * Пример: POST /home/api/users/5/enabled?value=false
+     */
+    @PostMapping("/api/users/{id}/enabled")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> setEnabled(@PathVariable Long id, @RequestParam boolean value) {
+        Optional<User> user = accountStatusService.setEnabled(id, value);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok((value ? "Пользователь включен: " : "Пользователь отключен: ") + id);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * DTO запроса пакетной проверки токенов
+ * 
+ * @param tokens токены (повторы допускаются, каждый проверяется один раз)
+ */
+public record IntrospectionRequest(List<String> tokens) {
+}
@@ -0,0 +1,31 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * DTO ответа пакетной проверки токенов
+ * Результаты в том же порядке, что токены в запросе
+ * 
+ * @param results результат для каждого токена
+ */
+public record IntrospectionResponse(List<Result> results) {
+
+    /**
+     * Результат проверки одного токена (поля по образцу RFC 7662)
+     * Для невалидного токена заполнено только active=false
+     * 
+     * @param active токен подписан нами, не истек и пользователь не отключен
+     * @param sub имя пользователя
+     * @param authorities роли
+     * @param iat время выдачи (секунды Unix)
+     * @param exp время истечения (секунды Unix)
+     * @param format jws или compact
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(boolean active, String sub, List<String> authorities, Long iat, Long exp, String format) {
+
+        public static final Result INACTIVE = new Result(false, null, null, null, null, null);
+    }
+}
@@ -2,52 +2,17 @@ package com.example.demo.dto;
 
 /**
  * DTO для ответа с JWT токеном
+ * 
+ * @param token токен
+ * @param type тип токена для заголовка Authorization (всегда "Bearer")
+ * @param username имя пользователя
+ * @param authorities роли через запятую
  */
-public class JwtResponse {
+public record JwtResponse(String token, String type, String username, String authorities) {
 
-    private String token;
-    private String type = "Bearer";
-    private String username;
-    private String authorities;
-
-    public JwtResponse() {
-    }
+    public static final String BEARER = "Bearer";
 
     public JwtResponse(String token, String username, String authorities) {
-        this.token = token;
-        this.username = username;
-        this.authorities = authorities;
-    }
-
-    public String getToken() {
-        return token;
-    }
-
-    public void setToken(String token) {
-        this.token = token;
-    }
-
-    public String getType() {
-        return type;
-    }
-
-    public void setType(String type) {
-        this.type = type;
-    }
-
-    public String getUsername() {
-        return username;
-    }
-
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
-    public String getAuthorities() {
-        return authorities;
-    }
-
-    public void setAuthorities(String authorities) {
-        this.authorities = authorities;
+        this(token, BEARER, username, authorities);
     }
 }
@@ -9,6 +9,11 @@ public class LoginRequest {
     private String username;
     private String password;
 
+    /**
+     * Формат токена: "jws" (по умолчанию) или "compact"
+     */
+    private String tokenFormat;
+
     public LoginRequest() {
     }
 
@@ -32,4 +37,12 @@ public class LoginRequest {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public String getTokenFormat() {
+        return tokenFormat;
+    }
+
+    public void setTokenFormat(String tokenFormat) {
+        this.tokenFormat = tokenFormat;
+    }
 }
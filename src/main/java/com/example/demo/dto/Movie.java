@@ -0,0 +1,71 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO фильма из OMDb API
+ * Поля OMDb начинаются с заглавной буквы, наружу отдаются в camelCase
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Movie {
+
+    private String title;
+    private String year;
+    private String genre;
+    private String plot;
+    private String imdbId;
+
+    public Movie() {
+    }
+
+    @JsonProperty("title")
+    public String getTitle() {
+        return title;
+    }
+
+    @JsonProperty("Title")
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    @JsonProperty("year")
+    public String getYear() {
+        return year;
+    }
+
+    @JsonProperty("Year")
+    public void setYear(String year) {
+        this.year = year;
+    }
+
+    @JsonProperty("genre")
+    public String getGenre() {
+        return genre;
+    }
+
+    @JsonProperty("Genre")
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    @JsonProperty("plot")
+    public String getPlot() {
+        return plot;
+    }
+
+    @JsonProperty("Plot")
+    public void setPlot(String plot) {
+        this.plot = plot;
+    }
+
+    @JsonProperty("imdbId")
+    public String getImdbId() {
+        return imdbId;
+    }
+
+    @JsonProperty("imdbID")
+    public void setImdbId(String imdbId) {
+        this.imdbId = imdbId;
+    }
+}
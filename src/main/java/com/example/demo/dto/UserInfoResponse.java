@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * DTO ответа /api/user/info
+ * 
+ * @param username имя пользователя
+ * @param authorities роли пользователя
+ * @param authenticated аутентифицирован ли пользователь
+ */
+public record UserInfoResponse(String username, List<String> authorities, boolean authenticated) {
+}
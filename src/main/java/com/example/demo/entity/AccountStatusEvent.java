@@ -0,0 +1,72 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Изменение статуса учетной записи для рассылки по узлам (JdbcAccountStatusFeed)
+ * Строки вставляются и читаются через JDBC, таблица создается миграциями (db/migration)
+ */
+@Entity
+@Table(name = "account_status_events")
+public class AccountStatusEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String username;
+    
+    @Column(nullable = false)
+    private boolean disabled;
+    
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    public AccountStatusEvent() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public boolean isDisabled() {
+        return disabled;
+    }
+    
+    public void setDisabled(boolean disabled) {
+        this.disabled = disabled;
+    }
+    
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
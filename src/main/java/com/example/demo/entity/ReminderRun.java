@@ -0,0 +1,84 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Запуск рассылки напоминаний
+ * Хранит контрольную точку (последний обработанный id пользователя),
+ * чтобы прерванный запуск продолжился с того же места
+ */
+@Entity
+@Table(name = "reminder_runs")
+public class ReminderRun {
+    
+    @Id
+    @Column(name = "run_key", length = 128)
+    private String runKey;
+    
+    @Column(nullable = false)
+    private String reminder;
+    
+    @Column(name = "last_user_id", nullable = false)
+    private long lastUserId;
+    
+    @Column(nullable = false, length = 16)
+    private String status;
+    
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+    
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+    
+    public ReminderRun() {}
+    
+    // Getters and Setters
+    public String getRunKey() {
+        return runKey;
+    }
+    
+    public void setRunKey(String runKey) {
+        this.runKey = runKey;
+    }
+    
+    public String getReminder() {
+        return reminder;
+    }
+    
+    public void setReminder(String reminder) {
+        this.reminder = reminder;
+    }
+    
+    public long getLastUserId() {
+        return lastUserId;
+    }
+    
+    public void setLastUserId(long lastUserId) {
+        this.lastUserId = lastUserId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
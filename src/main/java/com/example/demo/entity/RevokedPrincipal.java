@@ -0,0 +1,49 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Отзыв токенов пользователя (DisabledPrincipalRegistry)
+ * Строки вставляются и читаются через JDBC, таблица создается миграциями (db/migration)
+ */
+@Entity
+@Table(name = "revoked_principals")
+public class RevokedPrincipal {
+    
+    @Id
+    private String username;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+    
+    public RevokedPrincipal() {}
+    
+    // Getters and Setters
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
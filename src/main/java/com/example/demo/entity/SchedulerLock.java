@@ -0,0 +1,50 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Блокировка задачи планировщика в БД
+ * Гарантирует, что задача выполняется только на одном узле кластера
+ */
+@Entity
+@Table(name = "scheduler_locks")
+public class SchedulerLock {
+    
+    @Id
+    @Column(length = 64)
+    private String name;
+    
+    @Column(name = "locked_until", nullable = false)
+    private Instant lockedUntil;
+    
+    @Column(name = "locked_by", nullable = false)
+    private String lockedBy;
+    
+    public SchedulerLock() {}
+    
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+    
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+    
+    public String getLockedBy() {
+        return lockedBy;
+    }
+    
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Запись журнала аудита безопасности
+ * Строки вставляются пакетами через JDBC (JdbcAuditSink)
+ * Таблица и индекс по created_at создаются миграциями (db/migration)
+ */
+@Entity
+@Table(name = "security_audit")
+public class SecurityAuditEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType;
+    
+    private String username;
+    
+    @Column(name = "remote_address", length = 64)
+    private String remoteAddress;
+    
+    @Column(length = 1024)
+    private String detail;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    public SecurityAuditEntry() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+    
+    public void setRemoteAddress(String remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+    
+    public String getDetail() {
+        return detail;
+    }
+    
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.entity;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.Set;
 
 /**
@@ -23,6 +24,19 @@ public class User {
     
     private boolean enabled = true;
     
+    /**
+     * Время последнего входа и число входов
+     * Обновляются с задержкой пакетами (LoginActivityTracker), а не при каждом входе
+     * 
+     * Только для чтения: пишет их только LoginActivityTracker (login_count = login_count + ?),
+     * иначе save() загруженного ранее User затер бы накопленные входы старыми значениями
+     */
+    @Column(name = "last_login_at", insertable = false, updatable = false)
+    private Instant lastLoginAt;
+    
+    @Column(name = "login_count", nullable = false, insertable = false, updatable = false)
+    private long loginCount;
+    
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "user_roles",
@@ -78,4 +92,12 @@ public class User {
     public void setRoles(Set<Role> roles) {
         this.roles = roles;
     }
+    
+    public Instant getLastLoginAt() {
+        return lastLoginAt;
+    }
+    
+    public long getLoginCount() {
+        return loginCount;
+    }
 }
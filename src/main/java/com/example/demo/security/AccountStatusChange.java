@@ -0,0 +1,14 @@
+package com.example.demo.security;
+
+import java.time.Instant;
+
+/**
+ * Изменение статуса учетной записи для рассылки по узлам
+ * 
+ * @param username имя пользователя (subject токена)
+ * @param disabled true - учетная запись отключена или удалена
+ * @param revokedAt токены, выданные не позже этого момента, больше не принимаются;
+ *                  null - изменение без отзыва токенов (включение учетной записи)
+ */
+public record AccountStatusChange(String username, boolean disabled, Instant revokedAt) {
+}
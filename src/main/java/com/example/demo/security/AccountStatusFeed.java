@@ -0,0 +1,27 @@
+package com.example.demo.security;
+
+import java.util.function.Consumer;
+
+/**
+ * Канал рассылки изменений статуса учетных записей по узлам
+ * 
+ * Реализации:
+ * - LocalAccountStatusFeed - в пределах процесса (один узел, тесты)
+ * - JdbcAccountStatusFeed - через таблицу account_status_events,
+ *   каждый узел опрашивает ее раз в security.account-status.poll-interval
+ * 
+ * Для брокера сообщений (Redis pub/sub, Kafka) достаточно своей реализации
+ * этого интерфейса.
+ */
+public interface AccountStatusFeed {
+
+    /**
+     * Отправка изменения всем узлам (включая текущий)
+     */
+    void publish(AccountStatusChange change);
+
+    /**
+     * Подписка на изменения
+     */
+    void subscribe(Consumer<AccountStatusChange> listener);
+}
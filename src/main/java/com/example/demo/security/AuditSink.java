@@ -0,0 +1,17 @@
+package com.example.demo.security;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Хранилище журнала аудита
+ * Вызывается только из потока записи SecurityAuditLog
+ */
+public interface AuditSink extends AutoCloseable {
+
+    void write(List<SecurityEvent> batch) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.security;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.AccessDeniedHandlerImpl;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Обработчик отказа в доступе: запись в журнал аудита и переход на /access-denied
+ * (то же поведение, что accessDeniedPage("/access-denied"))
+ * 
+ * Срабатывает и для правил URL, и для @PreAuthorize
+ */
+@Component
+public class AuditingAccessDeniedHandler extends AccessDeniedHandlerImpl {
+
+    @Autowired
+    private SecurityAuditLog auditLog;
+
+    public AuditingAccessDeniedHandler() {
+        setErrorPage("/access-denied");
+    }
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response,
+                       AccessDeniedException accessDeniedException) throws IOException, ServletException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        auditLog.record(SecurityEvent.ACCESS_DENIED,
+                authentication != null ? authentication.getName() : null,
+                request.getRemoteAddr(),
+                request.getMethod() + " " + request.getRequestURI());
+        super.handle(request, response, accessDeniedException);
+    }
+}
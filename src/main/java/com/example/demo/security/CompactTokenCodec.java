@@ -0,0 +1,216 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Компактный формат токена доступа
+ * 
+ * Структура: "c1." + base64url(payload) + "." + base64url(HMAC-SHA512)
+ * 
+ * Payload - бинарный, без имен claims:
+ * - byte    флаги (бит 0: роли заданы маской "rm", иначе строкой authorities)
+ * - varint  iat, секунды
+ * - varint  exp - iat, секунды
+ * - varlong маска ролей | varint длина + UTF-8 строка authorities
+ * - varint  длина + UTF-8 subject
+ * 
+ * Issuer не передается - токен с префиксом "c1." выдает только это приложение.
+ * Подпись считается тем же ключом, что и у JWS (JwtConfig.jwtSecretKey),
+ * по префиксу версии и байтам payload.
+ */
+@Component
+public class CompactTokenCodec {
+
+    public static final String PREFIX = "c1.";
+
+    private static final byte[] PREFIX_BYTES = PREFIX.getBytes(StandardCharsets.US_ASCII);
+    private static final int FLAG_ROLE_MASK = 1;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Hs512Mac mac;
+
+    @Autowired
+    public CompactTokenCodec(Hs512Mac jwtMac) {
+        this.mac = jwtMac;
+    }
+
+    public CompactTokenCodec(SecretKey jwtSecretKey) {
+        this(new Hs512Mac(jwtSecretKey));
+    }
+
+    /**
+     * Данные компактного токена
+     * 
+     * @param roleMask маска ролей или -1, если роли переданы строкой
+     * @param authorities роли через пробел или null, если передана маска
+     */
+    public record CompactToken(String subject, Instant issuedAt, Instant expiresAt,
+                               long roleMask, String authorities) {
+    }
+
+    /**
+     * Является ли строка компактным токеном
+     */
+    public static boolean isCompact(String token) {
+        return token.startsWith(PREFIX);
+    }
+
+    /**
+     * Кодирование и подпись токена
+     * 
+     * @param roleMask маска ролей; если отрицательная, используется authorities
+     */
+    public String encode(String subject, Instant issuedAt, Instant expiresAt,
+                         long roleMask, String authorities) {
+        byte[] subjectBytes = subject.getBytes(StandardCharsets.UTF_8);
+        byte[] authoritiesBytes = roleMask >= 0 ? null : authorities.getBytes(StandardCharsets.UTF_8);
+
+        Writer out = new Writer(16 + subjectBytes.length
+                + (authoritiesBytes != null ? authoritiesBytes.length + 5 : 10));
+        out.writeByte(roleMask >= 0 ? FLAG_ROLE_MASK : 0);
+        out.writeVarLong(issuedAt.getEpochSecond());
+        out.writeVarLong(expiresAt.getEpochSecond() - issuedAt.getEpochSecond());
+        if (roleMask >= 0) {
+            out.writeVarLong(roleMask);
+        } else {
+            out.writeBytes(authoritiesBytes);
+        }
+        out.writeBytes(subjectBytes);
+
+        byte[] payload = out.toByteArray();
+        return PREFIX + ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac.sign(PREFIX_BYTES, payload));
+    }
+
+    /**
+     * Проверка подписи и разбор токена
+     * Срок действия здесь не проверяется - это делает JwtTokenProvider
+     * 
+     * @return данные токена или null, если формат или подпись неверны
+     */
+    public CompactToken decode(String token) {
+        if (!isCompact(token)) {
+            return null;
+        }
+        int dot = token.indexOf('.', PREFIX.length());
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(PREFIX.length(), dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!mac.verify(PREFIX_BYTES, payload, signature)) {
+                return null;
+            }
+
+            Reader in = new Reader(payload);
+            int flags = in.readByte();
+            long iat = in.readVarLong();
+            long exp = iat + in.readVarLong();
+            long roleMask = -1L;
+            String authorities = null;
+            if ((flags & FLAG_ROLE_MASK) != 0) {
+                roleMask = in.readVarLong();
+            } else {
+                authorities = in.readString();
+            }
+            String subject = in.readString();
+            return new CompactToken(subject, Instant.ofEpochSecond(iat), Instant.ofEpochSecond(exp),
+                    roleMask, authorities);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            // Неверный base64 или обрезанный payload
+            return null;
+        }
+    }
+
+    /**
+     * Запись varint (7 бит на байт, старший бит - признак продолжения)
+     */
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            byte[] result = new byte[position];
+            System.arraycopy(buffer, 0, result, 0, position);
+            return result;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                byte[] grown = new byte[Math.max(buffer.length * 2, position + extra)];
+                System.arraycopy(buffer, 0, grown, 0, position);
+                buffer = grown;
+            }
+        }
+    }
+
+    /**
+     * Чтение payload, записанного Writer
+     */
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Слишком длинный varint");
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > buffer.length - position) {
+                throw new IllegalArgumentException("Неверная длина строки");
+            }
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+    }
+}
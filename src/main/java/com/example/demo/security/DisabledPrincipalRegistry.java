@@ -0,0 +1,148 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Отозванные токены для проверки в JwtAuthenticationFilter
+ * 
+ * Для каждого отключенного или удаленного пользователя хранится момент отзыва:
+ * токены с iat не позже него не принимаются, выданные позже - принимаются.
+ * Поэтому повторная регистрация удаленного имени или включение учетной
+ * записи не возвращают силу старым токенам (в том числе с ROLE_ADMIN).
+ * 
+ * Отзыв записывается в revoked_principals в транзакции изменения статуса
+ * (persist) и рассылается через AccountStatusFeed. Снимок при старте строится
+ * из revoked_principals и отключенных строк users, поэтому после перезапуска
+ * и на новых узлах удаленные пользователи тоже известны.
+ * 
+ * Запись живет, пока не истечет последний выданный до отзыва токен
+ * (jwt.expiration), затем удаляется из памяти и из таблицы.
+ * Проверка - поиск в неизменяемой карте без обращения к БД;
+ * при изменении карта копируется целиком (изменения редки, чтения - на каждый запрос).
+ * 
+ * Ключ - имя пользователя: subject токена, уникальный в таблице users.
+ */
+@Component
+public class DisabledPrincipalRegistry {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Duration tokenLifetime;
+
+    private volatile Map<String, Instant> revokedAt = Map.of();
+
+    public DisabledPrincipalRegistry(AccountStatusFeed feed,
+                                     @Value("${jwt.expiration:86400000}") long tokenLifetimeMs) {
+        this.tokenLifetime = Duration.ofMillis(tokenLifetimeMs);
+        feed.subscribe(this::apply);
+    }
+
+    /**
+     * Загрузка действующих отзывов из БД
+     * 
+     * Пользователи, отключенные напрямую в users без записи об отзыве,
+     * считаются отозванными на момент загрузки - новых токенов они не получают
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        Instant now = Instant.now();
+        Map<String, Instant> snapshot = new HashMap<>(revokedAt);
+        jdbcTemplate.query("SELECT username, revoked_at FROM revoked_principals WHERE expires_at > ?",
+                rs -> {
+                    merge(snapshot, rs.getString("username"), rs.getTimestamp("revoked_at").toInstant());
+                },
+                Timestamp.from(now));
+        for (String username : jdbcTemplate.queryForList(
+                "SELECT username FROM users WHERE enabled = FALSE", String.class)) {
+            merge(snapshot, username, now);
+        }
+        revokedAt = withoutExpired(snapshot, now);
+    }
+
+    /**
+     * Запись отзыва в revoked_principals в транзакции вызывающего
+     * 
+     * @return момент отзыва для AccountStatusChange
+     */
+    public Instant persist(String username) {
+        Instant now = Instant.now();
+        Timestamp revoked = Timestamp.from(now);
+        Timestamp expires = Timestamp.from(now.plus(tokenLifetime));
+        int updated = jdbcTemplate.update(
+                "UPDATE revoked_principals SET revoked_at = ?, expires_at = ? WHERE username = ?",
+                revoked, expires, username);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO revoked_principals (username, revoked_at, expires_at) VALUES (?, ?, ?)",
+                    username, revoked, expires);
+        }
+        return now;
+    }
+
+    /**
+     * Удаление отзывов, после которых все выданные токены уже истекли
+     */
+    @Scheduled(fixedDelayString = "${security.account-status.cleanup-interval:1h}")
+    public synchronized void expire() {
+        Instant now = Instant.now();
+        revokedAt = withoutExpired(revokedAt, now);
+        jdbcTemplate.update("DELETE FROM revoked_principals WHERE expires_at <= ?", Timestamp.from(now));
+    }
+
+    /**
+     * Токен отозван: subject отключен или удален после выдачи токена
+     */
+    public boolean isRevoked(Jwt jwt) {
+        return isRevoked(jwt.getSubject(), jwt.getIssuedAt());
+    }
+
+    /**
+     * iat в токене с точностью до секунды, поэтому токен, выданный в ту же
+     * секунду, что и отзыв, тоже отклоняется; токен без iat отклоняется
+     */
+    public boolean isRevoked(String username, Instant issuedAt) {
+        Instant revoked = username != null ? revokedAt.get(username) : null;
+        if (revoked == null) {
+            return false;
+        }
+        return issuedAt == null || !issuedAt.isAfter(revoked.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    public int size() {
+        return revokedAt.size();
+    }
+
+    synchronized void apply(AccountStatusChange change) {
+        if (change.revokedAt() == null || change.revokedAt().equals(revokedAt.get(change.username()))) {
+            return;
+        }
+        Map<String, Instant> updated = new HashMap<>(revokedAt);
+        merge(updated, change.username(), change.revokedAt());
+        revokedAt = withoutExpired(updated, Instant.now());
+    }
+
+    private static void merge(Map<String, Instant> revocations, String username, Instant revoked) {
+        revocations.merge(username, revoked, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    private Map<String, Instant> withoutExpired(Map<String, Instant> revocations, Instant now) {
+        Map<String, Instant> active = new HashMap<>(revocations);
+        active.values().removeIf(revoked -> !revoked.plus(tokenLifetime).isAfter(now));
+        return Map.copyOf(active);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.Key;
+import java.security.MessageDigest;
+import java.util.Set;
+
+/**
+ * Подпись и проверка HS512 для Nimbus через Hs512Mac
+ *
+ * Nimbus MACSigner/MACVerifier создают и инициализируют Mac на каждый токен.
+ * Этот класс подставляется вместо них:
+ * - как JWSSigner в Hs512JwtEncoder
+ * - как JWSVerifierFactory в процессор NimbusJwtDecoder (JwtConfig)
+ *
+ * Сериализацию заголовка и claims по-прежнему выполняет Nimbus,
+ * поэтому токены совпадают с выданными NimbusJwtEncoder байт в байт.
+ * Для других алгоритмов и ключей используется DefaultJWSVerifierFactory.
+ */
+public class Hs512Jws implements JWSSigner, JWSVerifier, JWSVerifierFactory {
+
+    private static final Set<JWSAlgorithm> ALGORITHMS = Set.of(JWSAlgorithm.HS512);
+
+    private final Hs512Mac mac;
+    private final JCAContext jcaContext = new JCAContext();
+    private final DefaultJWSVerifierFactory fallback = new DefaultJWSVerifierFactory();
+
+    public Hs512Jws(Hs512Mac mac) {
+        this.mac = mac;
+    }
+
+    @Override
+    public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+        requireHs512(header);
+        return Base64URL.encode(mac.sign(signingInput));
+    }
+
+    @Override
+    public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+        requireHs512(header);
+        // Как MACVerifier: заголовок "crit" с неизвестными параметрами не принимается
+        if (header.getCriticalParams() != null && !header.getCriticalParams().isEmpty()) {
+            return false;
+        }
+        return mac.verify(null, signingInput, signature.decode());
+    }
+
+    @Override
+    public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+        if (JWSAlgorithm.HS512.equals(header.getAlgorithm()) && sameKey(key)) {
+            return this;
+        }
+        return fallback.createJWSVerifier(header, key);
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return ALGORITHMS;
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+
+    private boolean sameKey(Key key) {
+        return key == mac.getSecretKey()
+                || (key != null && MessageDigest.isEqual(key.getEncoded(), mac.getSecretKey().getEncoded()));
+    }
+
+    private static void requireHs512(JWSHeader header) throws JOSEException {
+        if (!JWSAlgorithm.HS512.equals(header.getAlgorithm())) {
+            throw new JOSEException("Неподдерживаемый алгоритм: " + header.getAlgorithm());
+        }
+    }
+}
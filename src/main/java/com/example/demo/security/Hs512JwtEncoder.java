@@ -0,0 +1,121 @@
+package com.example.demo.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JwtEncoder для HS512 с подписью через Hs512Jws
+ *
+ * Заголовок и claims преобразуются в объекты Nimbus так же, как это делает
+ * NimbusJwtEncoder (тот же порядок полей, kid ключа в заголовке),
+ * поэтому при одинаковых claims получается тот же токен.
+ * Поддерживаются заголовки alg, kid, typ, cty - других JwtTokenProvider не задает.
+ */
+public class Hs512JwtEncoder implements JwtEncoder {
+
+    private static final JwsHeader DEFAULT_JWS_HEADER = JwsHeader.with(MacAlgorithm.HS512).build();
+
+    private final Hs512Jws signer;
+    private final String keyId;
+
+    public Hs512JwtEncoder(Hs512Jws signer, String keyId) {
+        this.signer = signer;
+        this.keyId = keyId;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        JwsHeader headers = parameters.getJwsHeader() != null ? parameters.getJwsHeader() : DEFAULT_JWS_HEADER;
+        if (!MacAlgorithm.HS512.equals(headers.getAlgorithm())) {
+            throw new JwtEncodingException("Поддерживается только HS512: " + headers.getAlgorithm());
+        }
+        if (headers.getKeyId() == null) {
+            headers = JwsHeader.from(headers).keyId(keyId).build();
+        }
+        JwtClaimsSet claims = parameters.getClaims();
+
+        SignedJWT signedJwt = new SignedJWT(convert(headers), convert(claims));
+        try {
+            signedJwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new JwtEncodingException("Ошибка подписи JWT: " + e.getMessage(), e);
+        }
+        return new Jwt(signedJwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(),
+                headers.getHeaders(), claims.getClaims());
+    }
+
+    private static JWSHeader convert(JwsHeader headers) {
+        JWSHeader.Builder builder = new JWSHeader.Builder(JWSAlgorithm.parse(headers.getAlgorithm().getName()));
+        if (headers.getKeyId() != null) {
+            builder.keyID(headers.getKeyId());
+        }
+        if (headers.getType() != null) {
+            builder.type(new JOSEObjectType(headers.getType()));
+        }
+        if (headers.getContentType() != null) {
+            builder.contentType(headers.getContentType());
+        }
+        return builder.build();
+    }
+
+    private static JWTClaimsSet convert(JwtClaimsSet claims) {
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+
+        // Порядок как в NimbusJwtEncoder - от него зависит JSON payload
+        Object issuer = claims.getClaim(JwtClaimNames.ISS);
+        if (issuer != null) {
+            builder.issuer(issuer.toString());
+        }
+        String subject = claims.getSubject();
+        if (subject != null && !subject.isEmpty()) {
+            builder.subject(subject);
+        }
+        List<String> audience = claims.getAudience();
+        if (audience != null && !audience.isEmpty()) {
+            builder.audience(audience);
+        }
+        Instant expiresAt = claims.getExpiresAt();
+        if (expiresAt != null) {
+            builder.expirationTime(Date.from(expiresAt));
+        }
+        Instant notBefore = claims.getNotBefore();
+        if (notBefore != null) {
+            builder.notBeforeTime(Date.from(notBefore));
+        }
+        Instant issuedAt = claims.getIssuedAt();
+        if (issuedAt != null) {
+            builder.issueTime(Date.from(issuedAt));
+        }
+        String jwtId = claims.getId();
+        if (jwtId != null && !jwtId.isEmpty()) {
+            builder.jwtID(jwtId);
+        }
+
+        Map<String, Object> customClaims = new HashMap<>();
+        claims.getClaims().forEach((name, value) -> {
+            if (!JWTClaimsSet.getRegisteredNames().contains(name)) {
+                customClaims.put(name, value);
+            }
+        });
+        customClaims.forEach(builder::claim);
+        return builder.build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.security;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * HMAC-SHA512 с заранее инициализированным ключом
+ *
+ * Mac.getInstance + init на каждый токен - это поиск провайдера JCA
+ * и расчет ipad/opad от ключа. Здесь ключ обрабатывается один раз в прототипе,
+ * а рабочие экземпляры получаются его клонированием:
+ *
+ * 1. Платформенные потоки (Tomcat, пул introspection) держат свой экземпляр
+ *    в ThreadLocal
+ * 2. Виртуальные потоки живут один запрос, ThreadLocal для них бесполезен
+ *    и размножил бы экземпляры - они берут Mac из общего ограниченного пула
+ *    и возвращают его после подписи
+ *
+ * doFinal сбрасывает Mac в состояние сразу после init, поэтому экземпляр
+ * можно использовать повторно без повторной инициализации ключа.
+ */
+public final class Hs512Mac {
+
+    public static final String ALGORITHM = "HmacSHA512";
+
+    private final SecretKey secretKey;
+    private final Mac prototype;
+    private final ThreadLocal<Mac> perThread = ThreadLocal.withInitial(this::newMac);
+    private final ArrayBlockingQueue<Mac> shared;
+
+    public Hs512Mac(SecretKey secretKey) {
+        this.secretKey = secretKey;
+        this.prototype = init(secretKey);
+        this.shared = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Ключ, которым инициализирован Mac
+     */
+    public SecretKey getSecretKey() {
+        return secretKey;
+    }
+
+    /**
+     * HMAC от конкатенации prefix и data (prefix может быть null)
+     */
+    public byte[] sign(byte[] prefix, byte[] data) {
+        if (!Thread.currentThread().isVirtual()) {
+            return compute(perThread.get(), prefix, data);
+        }
+        Mac mac = shared.poll();
+        if (mac == null) {
+            mac = newMac();
+        }
+        try {
+            return compute(mac, prefix, data);
+        } finally {
+            // Пул полон - лишний экземпляр достанется GC
+            shared.offer(mac);
+        }
+    }
+
+    public byte[] sign(byte[] data) {
+        return sign(null, data);
+    }
+
+    /**
+     * Проверка подписи за постоянное время
+     */
+    public boolean verify(byte[] prefix, byte[] data, byte[] signature) {
+        return MessageDigest.isEqual(signature, sign(prefix, data));
+    }
+
+    private static byte[] compute(Mac mac, byte[] prefix, byte[] data) {
+        try {
+            if (prefix != null) {
+                mac.update(prefix);
+            }
+            return mac.doFinal(data);
+        } catch (RuntimeException e) {
+            // Mac в неизвестном состоянии - начинаем заново
+            mac.reset();
+            throw e;
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // Провайдер без поддержки clone - обычная инициализация
+            return init(secretKey);
+        }
+    }
+
+    private static Mac init(SecretKey secretKey) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA512 недоступен", e);
+        }
+    }
+}
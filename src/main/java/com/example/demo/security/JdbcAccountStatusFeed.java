@@ -0,0 +1,130 @@
+package com.example.demo.security;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Канал изменений статуса через таблицу account_status_events
+ * 
+ * publish вставляет строку и сразу применяет изменение на текущем узле.
+ * Остальные узлы раз в poll-interval читают строки по created_at - один
+ * короткий запрос по индексу в секунду на узел, а не на каждый HTTP запрос.
+ * 
+ * Чтение по id > последнего прочитанного теряет события: identity выдается
+ * до коммита, и транзакция, закоммиченная позже, оставляет строку с меньшим
+ * id позади позиции чтения. Поэтому каждый опрос заново читает последние
+ * poll-overlap (строки, закоммиченные с опозданием до этого интервала,
+ * или записанные узлом с отстающими часами), а уже примененные события
+ * пропускаются по id. Повторное применение изменения в любом случае безопасно.
+ * 
+ * Позиция чтения фиксируется при старте контекста (до загрузки снимка
+ * отзывов в DisabledPrincipalRegistry), поэтому
+ * изменения, сделанные во время старта, не теряются.
+ * 
+ * Вставка выполняется в собственной транзакции: publish вызывается и из
+ * afterCommit (AccountStatusService), где соединение завершенной транзакции
+ * еще привязано к потоку, но уже ничего не коммитит.
+ */
+public class JdbcAccountStatusFeed extends LocalAccountStatusFeed {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Duration retention;
+    private final Duration overlap;
+
+    /**
+     * Нижняя граница created_at следующего опроса, null до старта
+     */
+    private Instant readFrom;
+
+    /**
+     * Примененные события окна перекрытия: id -> created_at
+     */
+    private final Map<Long, Instant> seen = new HashMap<>();
+
+    public JdbcAccountStatusFeed(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 Duration retention, Duration overlap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retention = retention;
+        this.overlap = overlap;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void start() {
+        if (readFrom == null) {
+            readFrom = Instant.now().minus(overlap);
+        }
+    }
+
+    @Override
+    public void publish(AccountStatusChange change) {
+        Instant createdAt = Instant.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        newTransaction.executeWithoutResult(status -> jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO account_status_events (username, disabled, revoked_at, created_at) VALUES (?, ?, ?, ?)",
+                    new String[] {"id"});
+            statement.setString(1, change.username());
+            statement.setBoolean(2, change.disabled());
+            statement.setTimestamp(3, change.revokedAt() != null ? Timestamp.from(change.revokedAt()) : null);
+            statement.setTimestamp(4, Timestamp.from(createdAt));
+            return statement;
+        }, keyHolder));
+        synchronized (this) {
+            // Свое событие уже применено ниже - опрос его пропустит
+            seen.put(keyHolder.getKey().longValue(), createdAt);
+        }
+        dispatch(change);
+    }
+
+    /**
+     * Чтение новых изменений других узлов
+     */
+    @Scheduled(fixedDelayString = "${security.account-status.poll-interval:1s}")
+    public synchronized void poll() {
+        if (readFrom == null) {
+            return;
+        }
+        Instant pollStartedAt = Instant.now();
+        jdbcTemplate.query(
+                "SELECT id, username, disabled, revoked_at, created_at FROM account_status_events "
+                        + "WHERE created_at >= ? ORDER BY created_at, id",
+                rs -> {
+                    if (seen.putIfAbsent(rs.getLong("id"), rs.getTimestamp("created_at").toInstant()) != null) {
+                        return;
+                    }
+                    Timestamp revokedAt = rs.getTimestamp("revoked_at");
+                    dispatch(new AccountStatusChange(rs.getString("username"), rs.getBoolean("disabled"),
+                            revokedAt != null ? revokedAt.toInstant() : null));
+                },
+                Timestamp.from(readFrom));
+        readFrom = pollStartedAt.minus(overlap);
+        seen.values().removeIf(createdAt -> createdAt.isBefore(readFrom));
+    }
+
+    /**
+     * Удаление старых событий: узлы, запущенные позже, берут состояние
+     * из revoked_principals и users (DisabledPrincipalRegistry.reload)
+     */
+    @Scheduled(fixedDelayString = "${security.account-status.cleanup-interval:1h}")
+    public void cleanup() {
+        jdbcTemplate.update("DELETE FROM account_status_events WHERE created_at < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.security;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запись журнала аудита в таблицу security_audit одним batch INSERT на порцию
+ */
+public class JdbcAuditSink implements AuditSink {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO security_audit (event_type, username, remote_address, detail, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcAuditSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void write(List<SecurityEvent> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (SecurityEvent event : batch) {
+            rows.add(new Object[]{event.type(), event.username(), event.remoteAddress(),
+                    event.detail(), Timestamp.from(event.timestamp())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
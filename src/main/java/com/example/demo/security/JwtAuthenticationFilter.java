@@ -6,17 +6,14 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * JWT Authentication Filter
@@ -31,6 +28,9 @@ import java.util.stream.Collectors;
  * и проверяет наличие JWT токена в заголовке Authorization.
  * 
  * Формат заголовка: "Authorization: Bearer <token>"
+ * 
+ * Токен, выданный до отключения или удаления пользователя, не принимается
+ * (DisabledPrincipalRegistry, без обращения к БД)
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -38,6 +38,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private DisabledPrincipalRegistry disabledPrincipals;
+
     /**
      * Извлечение JWT токена из HTTP заголовка Authorization
      * 
@@ -68,27 +71,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Извлекаем JWT токен из запроса
             String jwt = getJwtFromRequest(request);
 
-            // Если токен найден и валиден
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                // Извлекаем имя пользователя из токена
-                String username = tokenProvider.getUsernameFromToken(jwt);
-
-                // Извлекаем роли из токена
-                String authoritiesString = tokenProvider.getAuthoritiesFromToken(jwt);
-
-                // Преобразуем роли в список GrantedAuthority
-                // В Spring Security JWT роли разделяются пробелами, а не запятыми
-                List<SimpleGrantedAuthority> authorities = Arrays.stream(authoritiesString.split(" "))
-                        .map(String::trim)
-                        .filter(s -> !s.isEmpty())
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+            // Декодируем токен один раз: подпись, срок действия и claims
+            Jwt decoded = StringUtils.hasText(jwt) ? tokenProvider.decodeValidToken(jwt) : null;
 
-                // Создаем объект Authentication
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        username,
-                        null,
-                        authorities);
+            // Если токен найден, валиден и не отозван
+            if (decoded != null && !disabledPrincipals.isRevoked(decoded)) {
+                // Создаем объект Authentication из имени пользователя и ролей токена
+                // (claim "rm" с маской ролей или строка "authorities")
+                UsernamePasswordAuthenticationToken authentication = tokenProvider.getAuthentication(decoded);
 
                 // Устанавливаем детали аутентификации
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -2,19 +2,26 @@ package com.example.demo.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -42,16 +49,34 @@ import java.util.stream.Collectors;
 @Component
 public class JwtTokenProvider {
 
+    /**
+     * Строка ролей через пробел, например "ROLE_ADMIN ROLE_USER"
+     */
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    /**
+     * Битовая маска ролей (см. RoleMaskRegistry)
+     */
+    public static final String ROLE_MASK_CLAIM = "rm";
+
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
+    @Value("${jwt.role-mask.enabled:false}")
+    private boolean roleMaskEnabled;
+
     private final JwtEncoder jwtEncoder;
     private final JwtDecoder jwtDecoder;
+    private final RoleMaskRegistry roleMaskRegistry;
+    private final CompactTokenCodec compactTokenCodec;
 
     @Autowired
-    public JwtTokenProvider(JwtEncoder jwtEncoder, JwtDecoder jwtDecoder) {
+    public JwtTokenProvider(JwtEncoder jwtEncoder, JwtDecoder jwtDecoder,
+                            RoleMaskRegistry roleMaskRegistry, CompactTokenCodec compactTokenCodec) {
         this.jwtEncoder = jwtEncoder;
         this.jwtDecoder = jwtDecoder;
+        this.roleMaskRegistry = roleMaskRegistry;
+        this.compactTokenCodec = compactTokenCodec;
     }
 
     /**
@@ -61,73 +86,119 @@ public class JwtTokenProvider {
      * @return JWT токен в виде строки
      */
     public String generateToken(Authentication authentication) {
+        return generateToken(authentication, TokenFormat.JWS);
+    }
+
+    /**
+     * Генерация токена в выбранном клиентом формате
+     * 
+     * @param authentication объект аутентификации Spring Security
+     * @param format JWS или COMPACT
+     * @return токен в виде строки
+     */
+    public String generateToken(Authentication authentication, TokenFormat format) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        if (format == TokenFormat.COMPACT) {
+            return encodeCompactToken(userDetails.getUsername(), authentication.getAuthorities());
+        }
+        return encodeToken(userDetails.getUsername(), authentication.getAuthorities());
+    }
 
-        // Получаем роли пользователя
-        String authorities = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(" "));
+    /**
+     * Генерация JWT токена из UserDetails
+     * 
+     * @param userDetails детали пользователя
+     * @return JWT токен в виде строки
+     */
+    public String generateToken(UserDetails userDetails) {
+        return encodeToken(userDetails.getUsername(), userDetails.getAuthorities());
+    }
 
+    /**
+     * Сборка и подпись токена
+     * 
+     * Если включен jwt.role-mask.enabled и все роли есть в RoleMaskRegistry,
+     * вместо строки "authorities" в токен кладется числовой claim "rm"
+     */
+    private String encodeToken(String username, Collection<? extends GrantedAuthority> grantedAuthorities) {
         Instant now = Instant.now();
         Instant expiryDate = now.plusMillis(jwtExpirationMs);
 
         // Создаем claims для JWT токена
-        JwtClaimsSet claims = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
                 .issuer("spring-security-demo")
                 .issuedAt(now)
                 .expiresAt(expiryDate)
-                .subject(userDetails.getUsername())
-                .claim("authorities", authorities)
-                .build();
+                .subject(username);
+
+        long roleMask = roleMaskEnabled ? roleMaskRegistry.maskOf(grantedAuthorities) : -1L;
+        if (roleMask >= 0) {
+            claims.claim(ROLE_MASK_CLAIM, roleMask);
+        } else {
+            // Получаем роли пользователя
+            String authorities = grantedAuthorities.stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.joining(" "));
+            claims.claim(AUTHORITIES_CLAIM, authorities);
+        }
 
         // Создаем header
         JwsHeader header = JwsHeader.with(MacAlgorithm.HS512).build();
 
         // Кодируем токен
-        JwtEncoderParameters encoderParameters = JwtEncoderParameters.from(header, claims);
+        JwtEncoderParameters encoderParameters = JwtEncoderParameters.from(header, claims.build());
         Jwt jwt = jwtEncoder.encode(encoderParameters);
 
         return jwt.getTokenValue();
     }
 
     /**
-     * Генерация JWT токена из UserDetails
-     * 
-     * @param userDetails детали пользователя
-     * @return JWT токен в виде строки
+     * Сборка компактного токена (CompactTokenCodec)
+     * Маска ролей используется всегда, когда роли представимы битами
      */
-    public String generateToken(UserDetails userDetails) {
-        String authorities = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(" "));
-
+    private String encodeCompactToken(String username, Collection<? extends GrantedAuthority> grantedAuthorities) {
         Instant now = Instant.now();
         Instant expiryDate = now.plusMillis(jwtExpirationMs);
 
-        JwtClaimsSet claims = JwtClaimsSet.builder()
-                .issuer("spring-security-demo")
-                .issuedAt(now)
-                .expiresAt(expiryDate)
-                .subject(userDetails.getUsername())
-                .claim("authorities", authorities)
-                .build();
-
-        JwsHeader header = JwsHeader.with(MacAlgorithm.HS512).build();
-
-        JwtEncoderParameters encoderParameters = JwtEncoderParameters.from(header, claims);
-        Jwt jwt = jwtEncoder.encode(encoderParameters);
+        long roleMask = roleMaskRegistry.maskOf(grantedAuthorities);
+        String authorities = roleMask >= 0 ? null : grantedAuthorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(" "));
 
-        return jwt.getTokenValue();
+        return compactTokenCodec.encode(username, now, expiryDate, roleMask, authorities);
     }
 
     /**
      * Декодирование JWT токена
      * 
+     * Компактные токены (префикс "c1.") проверяются CompactTokenCodec
+     * и возвращаются в виде того же объекта Jwt, что и стандартные
+     * 
      * @param token JWT токен
      * @return объект Jwt с claims
+     * @throws JwtException если токен невалиден
      */
     public Jwt decodeToken(String token) {
-        return jwtDecoder.decode(token);
+        if (!CompactTokenCodec.isCompact(token)) {
+            return jwtDecoder.decode(token);
+        }
+
+        CompactTokenCodec.CompactToken compact = compactTokenCodec.decode(token);
+        if (compact == null) {
+            throw new BadJwtException("Invalid compact token");
+        }
+
+        Jwt.Builder jwt = Jwt.withTokenValue(token)
+                .header("alg", MacAlgorithm.HS512.getName())
+                .subject(compact.subject())
+                .issuedAt(compact.issuedAt())
+                .expiresAt(compact.expiresAt());
+        if (compact.roleMask() >= 0) {
+            jwt.claim(ROLE_MASK_CLAIM, compact.roleMask());
+        } else {
+            jwt.claim(AUTHORITIES_CLAIM, compact.authorities());
+        }
+        return jwt.build();
     }
 
     /**
@@ -137,7 +208,7 @@ public class JwtTokenProvider {
      * @return имя пользователя
      */
     public String getUsernameFromToken(String token) {
-        Jwt jwt = jwtDecoder.decode(token);
+        Jwt jwt = decodeToken(token);
         return jwt.getSubject();
     }
 
@@ -148,8 +219,59 @@ public class JwtTokenProvider {
      * @return строку с ролями, разделенными пробелами
      */
     public String getAuthoritiesFromToken(String token) {
-        Jwt jwt = jwtDecoder.decode(token);
-        return jwt.getClaim("authorities");
+        Jwt jwt = decodeToken(token);
+        return jwt.getClaim(AUTHORITIES_CLAIM);
+    }
+
+    /**
+     * Декодирование токена с проверкой срока действия
+     * 
+     * В отличие от validateToken + getUsernameFromToken + getAuthoritiesFromToken
+     * подпись проверяется один раз
+     * 
+     * @param token JWT токен
+     * @return объект Jwt или null, если токен невалиден или истек
+     */
+    public Jwt decodeValidToken(String token) {
+        try {
+            Jwt jwt = decodeToken(token);
+            if (jwt.getExpiresAt() == null || !jwt.getExpiresAt().isAfter(Instant.now())) {
+                return null;
+            }
+            return jwt;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Создание Authentication из декодированного токена
+     * 
+     * Токены с claim "rm" превращаются в RoleMaskAuthenticationToken,
+     * список authorities для маски берется из кэша RoleMaskRegistry.
+     * Токены со строкой "authorities" разбираются как раньше.
+     * 
+     * @param jwt декодированный токен
+     * @return объект Authentication
+     */
+    public UsernamePasswordAuthenticationToken getAuthentication(Jwt jwt) {
+        Object roleMask = jwt.getClaims().get(ROLE_MASK_CLAIM);
+        if (roleMask instanceof Number number) {
+            long mask = number.longValue();
+            return new RoleMaskAuthenticationToken(jwt.getSubject(), roleMaskRegistry.authoritiesOf(mask), mask);
+        }
+
+        // В Spring Security JWT роли разделяются пробелами, а не запятыми
+        String authoritiesString = jwt.getClaim(AUTHORITIES_CLAIM);
+        List<SimpleGrantedAuthority> authorities = authoritiesString == null
+                ? List.of()
+                : Arrays.stream(authoritiesString.split(" "))
+                        .map(String::trim)
+                        .filter(s -> !s.isEmpty())
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+
+        return new UsernamePasswordAuthenticationToken(jwt.getSubject(), null, authorities);
     }
 
     /**
@@ -160,7 +282,7 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token) {
         try {
-            Jwt jwt = jwtDecoder.decode(token);
+            Jwt jwt = decodeToken(token);
             // Проверяем, что токен не истек
             return jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now());
         } catch (Exception e) {
@@ -177,7 +299,7 @@ public class JwtTokenProvider {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Jwt jwt = jwtDecoder.decode(token);
+            Jwt jwt = decodeToken(token);
             if (jwt.getExpiresAt() == null) {
                 return true;
             }
@@ -0,0 +1,30 @@
+package com.example.demo.security;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Канал изменений статуса в пределах одного процесса
+ * Подписчики вызываются синхронно в потоке publish
+ */
+public class LocalAccountStatusFeed implements AccountStatusFeed {
+
+    private final List<Consumer<AccountStatusChange>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(AccountStatusChange change) {
+        dispatch(change);
+    }
+
+    @Override
+    public void subscribe(Consumer<AccountStatusChange> listener) {
+        listeners.add(listener);
+    }
+
+    protected void dispatch(AccountStatusChange change) {
+        for (Consumer<AccountStatusChange> listener : listeners) {
+            listener.accept(change);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.security;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Журнал аудита в локальном файле только для дописывания
+ * 
+ * Файл отображается в память областями по REGION_SIZE байт; запись строки -
+ * копирование в MappedByteBuffer без системного вызова. Сброс на диск
+ * выполняет ОС (и force() после каждой порции).
+ * 
+ * Формат строки: время TAB тип TAB пользователь TAB адрес TAB детали
+ * Хвост последней области заполнен нулями; при открытии запись продолжается
+ * после последнего ненулевого байта, при закрытии файл обрезается.
+ */
+public class MappedFileAuditSink implements AuditSink {
+
+    private static final int REGION_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    public MappedFileAuditSink(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(findEnd());
+    }
+
+    @Override
+    public void write(List<SecurityEvent> batch) throws IOException {
+        for (SecurityEvent event : batch) {
+            byte[] line = format(event);
+            if (line.length > region.remaining()) {
+                map(regionStart + region.position());
+                if (line.length > region.remaining()) {
+                    // Строка длиннее области - пропускаем, чтобы не потерять остальные
+                    continue;
+                }
+            }
+            region.put(line);
+        }
+        region.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        long end = regionStart + region.position();
+        region.force();
+        region = null;
+        channel.truncate(end);
+        channel.close();
+    }
+
+    private void map(long position) throws IOException {
+        regionStart = position;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position, REGION_SIZE);
+    }
+
+    /**
+     * Позиция после последнего записанного байта (после аварийного завершения
+     * файл может заканчиваться нулями отображенной, но не заполненной области)
+     */
+    private long findEnd() throws IOException {
+        long end = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            channel.read(buffer, start);
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) != 0) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private static byte[] format(SecurityEvent event) {
+        String line = event.timestamp() + "\t" + event.type() + "\t" + clean(event.username()) + "\t"
+                + clean(event.remoteAddress()) + "\t" + clean(event.detail()) + "\n";
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String clean(String value) {
+        if (value == null) {
+            return "-";
+        }
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
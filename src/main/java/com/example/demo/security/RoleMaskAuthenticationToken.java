@@ -0,0 +1,28 @@
+package com.example.demo.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authentication, восстановленный из JWT с claim "rm"
+ *
+ * Помимо обычного списка authorities хранит исходную битовую маску ролей,
+ * чтобы проверки доступа сводились к одной операции AND
+ */
+public class RoleMaskAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final long roleMask;
+
+    public RoleMaskAuthenticationToken(Object principal,
+                                       Collection<? extends GrantedAuthority> authorities,
+                                       long roleMask) {
+        super(principal, null, authorities);
+        this.roleMask = roleMask;
+    }
+
+    public long getRoleMask() {
+        return roleMask;
+    }
+}
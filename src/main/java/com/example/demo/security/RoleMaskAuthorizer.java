@@ -0,0 +1,52 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Проверка ролей по битовой маске для @PreAuthorize
+ *
+ * Пример использования:
+ * <pre>
+ * &#64;PreAuthorize("@roleMask.hasAnyRole(authentication, 'USER', 'ADMIN')")
+ * </pre>
+ *
+ * Для токенов с claim "rm" проверка - одно целочисленное AND.
+ * Для остальных способов входа (форма логина, сессия) используется
+ * обычное сравнение authorities, поэтому выражение работает везде.
+ */
+@Component("roleMask")
+public class RoleMaskAuthorizer {
+
+    @Autowired
+    private RoleMaskRegistry roleMaskRegistry;
+
+    public boolean hasRole(Authentication authentication, String role) {
+        return hasAnyRole(authentication, role);
+    }
+
+    public boolean hasAnyRole(Authentication authentication, String... roles) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+
+        if (authentication instanceof RoleMaskAuthenticationToken token) {
+            long required = 0L;
+            for (String role : roles) {
+                required |= roleMaskRegistry.bitOfRole(role);
+            }
+            return (token.getRoleMask() & required) != 0L;
+        }
+
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            for (String role : roles) {
+                if (authority.getAuthority().equals("ROLE_" + role)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.security;
+
+import com.example.demo.entity.Role;
+import com.example.demo.repository.RoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр битов ролей для компактного claim "rm" в JWT
+ *
+ * Каждой роли из таблицы roles соответствует бит с номером (id - 1).
+ * Идентификаторы ролей стабильны между узлами и перезапусками,
+ * поэтому маска, выданная одним узлом, понятна любому другому.
+ *
+ * Роли с id больше 64 в маску не попадают - для них токен
+ * продолжает нести строковый claim "authorities".
+ *
+ * Таблица roles читается только при старте, после создания роли
+ * (refresh) и раз в jwt.role-mask.refresh-interval для ролей, созданных
+ * другими узлами, - никогда на пути обработки запроса. Неизвестная роль
+ * дает маску -1 (токен с authorities), неизвестные биты маски пропускаются.
+ */
+@Component
+public class RoleMaskRegistry {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private volatile Map<String, Long> bitsByAuthority = Collections.emptyMap();
+    private volatile String[] authoritiesByBit = new String[Long.SIZE];
+
+    /**
+     * Кэш списков authorities по маске - фильтр не создает новые объекты
+     * для уже встречавшихся комбинаций ролей
+     */
+    private final Map<Long, List<GrantedAuthority>> authoritiesByMask = new ConcurrentHashMap<>();
+
+    /**
+     * Перечитывает таблицу roles
+     * Вызывается при старте, по расписанию и после создания новой роли
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.role-mask.refresh-interval:5m}",
+            initialDelayString = "${jwt.role-mask.refresh-interval:5m}")
+    public synchronized void refresh() {
+        Map<String, Long> bits = new HashMap<>();
+        String[] names = new String[Long.SIZE];
+        for (Role role : roleRepository.findAll()) {
+            long index = role.getId() - 1;
+            if (index < 0 || index >= Long.SIZE) {
+                continue;
+            }
+            String authority = ROLE_PREFIX + role.getName();
+            bits.put(authority, 1L << index);
+            names[(int) index] = authority;
+        }
+        this.authoritiesByBit = names;
+        this.bitsByAuthority = bits;
+        this.authoritiesByMask.clear();
+    }
+
+    /**
+     * Бит authority (например "ROLE_ADMIN") или 0, если роль не входит в реестр
+     */
+    public long bitOf(String authority) {
+        Long bit = bitsByAuthority.get(authority);
+        return bit != null ? bit : 0L;
+    }
+
+    /**
+     * Бит роли по имени без префикса (например "ADMIN")
+     */
+    public long bitOfRole(String role) {
+        return bitOf(ROLE_PREFIX + role);
+    }
+
+    /**
+     * Маска для набора authorities
+     *
+     * @return маска или -1, если хотя бы одна authority не представима битом
+     */
+    public long maskOf(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0L;
+        for (GrantedAuthority authority : authorities) {
+            long bit = bitOf(authority.getAuthority());
+            if (bit == 0L) {
+                return -1L;
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Список authorities для маски (кэшируется)
+     *
+     * Биты ролей, которых еще нет в реестре (токен выдан узлом, уже знающим
+     * о новой роли), пропускаются до следующего refresh
+     */
+    public List<GrantedAuthority> authoritiesOf(long mask) {
+        return authoritiesByMask.computeIfAbsent(mask, m -> {
+            String[] names = authoritiesByBit;
+            List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(m));
+            for (long rest = m; rest != 0; rest &= rest - 1) {
+                String name = names[Long.numberOfTrailingZeros(rest)];
+                if (name != null) {
+                    authorities.add(new SimpleGrantedAuthority(name));
+                }
+            }
+            return Collections.unmodifiableList(authorities);
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Запись входов в журнал аудита
+ * 
+ * ProviderManager публикует события аутентификации через
+ * AuthenticationEventPublisher (Spring Boot регистрирует его автоматически),
+ * поэтому сюда попадают и вход через форму, и /api/auth/login (AuthJwtController).
+ * Проверка JWT в JwtAuthenticationFilter не проходит через ProviderManager
+ * и событий не создает.
+ */
+@Component
+public class SecurityAuditListener {
+
+    @Autowired
+    private SecurityAuditLog auditLog;
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        auditLog.record(SecurityEvent.LOGIN_SUCCESS, event.getAuthentication().getName(),
+                currentRemoteAddress(), currentRequestUri());
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent event) {
+        auditLog.record(SecurityEvent.LOGIN_FAILURE, event.getAuthentication().getName(),
+                currentRemoteAddress(), event.getException().getClass().getSimpleName());
+    }
+
+    private static String currentRemoteAddress() {
+        HttpServletRequest request = currentRequest();
+        return request != null ? request.getRemoteAddr() : null;
+    }
+
+    private static String currentRequestUri() {
+        HttpServletRequest request = currentRequest();
+        return request != null ? request.getRequestURI() : null;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронный журнал аудита безопасности
+ * 
+ * Потоки запросов только кладут событие в lock-free кольцевой буфер
+ * (AuditRingBuffer) и никогда не ждут: если буфер полон, событие
+ * отбрасывается и увеличивается счетчик dropped.
+ * 
+ * Отдельный поток "security-audit-writer" забирает события порциями
+ * до batch-size и записывает их в хранилище:
+ * - security.audit.sink=jdbc - batch INSERT в таблицу security_audit
+ * - security.audit.sink=file - файл только для дописывания, отображенный в память
+ *   (security.audit.file)
+ * 
+ * Ошибка записи не останавливает поток - порция теряется, растет счетчик failed.
+ * При остановке приложения буфер дописывается до конца.
+ */
+@Component
+public class SecurityAuditLog {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AuditRingBuffer<SecurityEvent> buffer;
+    private final AuditSink sink;
+    private final int batchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public SecurityAuditLog(
+            JdbcTemplate jdbcTemplate,
+            @Value("${security.audit.sink:jdbc}") String sinkType,
+            @Value("${security.audit.file:security-audit.log}") String file,
+            @Value("${security.audit.buffer-size:8192}") int bufferSize,
+            @Value("${security.audit.batch-size:256}") int batchSize) throws IOException {
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.sink = switch (sinkType) {
+            case "jdbc" -> new JdbcAuditSink(jdbcTemplate);
+            case "file" -> new MappedFileAuditSink(Path.of(file));
+            default -> throw new IllegalArgumentException("Неизвестный security.audit.sink: " + sinkType);
+        };
+        this.writer = new Thread(this::writeLoop, "security-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Публикация события (не блокирует)
+     */
+    public void record(String type, String username, String remoteAddress, String detail) {
+        SecurityEvent event = new SecurityEvent(type, username, remoteAddress, detail, Instant.now());
+        if (buffer.offer(event)) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Счетчики: опубликовано, отброшено при переполнении, записано, потеряно из-за ошибок записи
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("published", published.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        sink.close();
+    }
+
+    private void writeLoop() {
+        List<SecurityEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            boolean stopping = !running;
+            drain(batch);
+            if (batch.isEmpty()) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                sink.write(batch);
+                written.add(batch.size());
+            } catch (Exception e) {
+                failed.add(batch.size());
+                System.out.println("Ошибка записи журнала аудита: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void drain(List<SecurityEvent> batch) {
+        SecurityEvent event;
+        while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+            batch.add(event);
+        }
+    }
+}
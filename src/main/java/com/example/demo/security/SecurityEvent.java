@@ -0,0 +1,20 @@
+package com.example.demo.security;
+
+import java.time.Instant;
+
+/**
+ * Событие безопасности для журнала аудита
+ * 
+ * @param type тип события (LOGIN_SUCCESS, LOGIN_FAILURE, ACCESS_DENIED, REGISTRATION)
+ * @param username имя пользователя или null
+ * @param remoteAddress IP клиента или null
+ * @param detail подробности (URL, причина ошибки)
+ * @param timestamp время события
+ */
+public record SecurityEvent(String type, String username, String remoteAddress, String detail, Instant timestamp) {
+
+    public static final String LOGIN_SUCCESS = "LOGIN_SUCCESS";
+    public static final String LOGIN_FAILURE = "LOGIN_FAILURE";
+    public static final String ACCESS_DENIED = "ACCESS_DENIED";
+    public static final String REGISTRATION = "REGISTRATION";
+}
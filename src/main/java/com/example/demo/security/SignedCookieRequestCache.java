@@ -0,0 +1,168 @@
+package com.example.demo.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.savedrequest.RequestCache;
+import org.springframework.security.web.savedrequest.SavedRequest;
+import org.springframework.security.web.savedrequest.SimpleSavedRequest;
+import org.springframework.security.web.util.UrlUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Сохраненный запрос (куда вернуть пользователя после входа) в подписанной cookie
+ *
+ * HttpSessionRequestCache создает сессию на каждый анонимный запрос к /user/**
+ * или /admin/** - боты, перебирающие закрытые адреса, бесплатно заполняют
+ * хранилище сессий. Здесь адрес хранится у клиента:
+ *
+ * SAVED_REQUEST = base64url(exp|url) + "." + base64url(HMAC-SHA512)
+ *
+ * - подпись считается Hs512Mac с префиксом "rc1." (ключ JWT, но подпись
+ *   cookie не может сойти за подпись токена и наоборот)
+ * - url - только путь и query без контекста (UrlUtils.buildRequestUrl),
+ *   поэтому подмена на внешний адрес невозможна даже с верной подписью
+ * - сохраняются только GET запросы страниц: не /api/**, не XHR, не JSON
+ *
+ * Сессия создается только при успешном входе.
+ */
+@Component
+public class SignedCookieRequestCache implements RequestCache {
+
+    public static final String COOKIE_NAME = "SAVED_REQUEST";
+
+    private static final byte[] MAC_PREFIX = "rc1.".getBytes(StandardCharsets.US_ASCII);
+    private static final String API_PREFIX = "/api/";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Hs512Mac mac;
+    private final Duration ttl;
+
+    @Autowired
+    public SignedCookieRequestCache(Hs512Mac jwtMac,
+                                    @Value("${security.request-cache.ttl:5m}") Duration ttl) {
+        this.mac = jwtMac;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public void saveRequest(HttpServletRequest request, HttpServletResponse response) {
+        if (!isSavable(request)) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() / 1000 + ttl.toSeconds();
+        byte[] payload = (expiresAt + "|" + UrlUtils.buildRequestUrl(request)).getBytes(StandardCharsets.UTF_8);
+        String value = ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac.sign(MAC_PREFIX, payload));
+        response.addCookie(cookie(request, value, (int) ttl.toSeconds()));
+    }
+
+    @Override
+    public SavedRequest getRequest(HttpServletRequest request, HttpServletResponse response) {
+        String url = savedUrl(request);
+        return url != null ? new SimpleSavedRequest(url) : null;
+    }
+
+    /**
+     * Вызывается RequestCacheAwareFilter на каждый запрос - без cookie
+     * это только просмотр массива cookies
+     *
+     * Когда пользователь пришел на сохраненный адрес, cookie удаляется
+     */
+    @Override
+    public HttpServletRequest getMatchingRequest(HttpServletRequest request, HttpServletResponse response) {
+        String url = savedUrl(request);
+        if (url == null || !url.equals(UrlUtils.buildRequestUrl(request))) {
+            return null;
+        }
+        removeRequest(request, response);
+        return request;
+    }
+
+    @Override
+    public void removeRequest(HttpServletRequest request, HttpServletResponse response) {
+        if (findCookie(request) != null) {
+            response.addCookie(cookie(request, "", 0));
+        }
+    }
+
+    /**
+     * Адрес из cookie или null, если cookie нет, подпись неверна или срок истек
+     */
+    private String savedUrl(HttpServletRequest request) {
+        String value = findCookie(request);
+        if (value == null) {
+            return null;
+        }
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            byte[] payload = DECODER.decode(value.substring(0, dot));
+            byte[] signature = DECODER.decode(value.substring(dot + 1));
+            if (!mac.verify(MAC_PREFIX, payload, signature)) {
+                return null;
+            }
+            String decoded = new String(payload, StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            if (separator < 0 || Long.parseLong(decoded.substring(0, separator)) < System.currentTimeMillis() / 1000) {
+                return null;
+            }
+            String url = decoded.substring(separator + 1);
+            // Только относительный путь приложения
+            if (!url.startsWith("/") || url.startsWith("//") || url.startsWith("/\\")) {
+                return null;
+            }
+            return url;
+        } catch (IllegalArgumentException e) {
+            // Неверный base64 или срок
+            return null;
+        }
+    }
+
+    private static boolean isSavable(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return false;
+        }
+        if (UrlUtils.buildRequestUrl(request).startsWith(API_PREFIX)) {
+            return false;
+        }
+        if ("XMLHttpRequest".equals(request.getHeader("X-Requested-With"))) {
+            return false;
+        }
+        String accept = request.getHeader("Accept");
+        return accept == null || !accept.startsWith("application/json");
+    }
+
+    private static String findCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Cookie cookie(HttpServletRequest request, String value, int maxAge) {
+        Cookie cookie = new Cookie(COOKIE_NAME, value);
+        String contextPath = request.getContextPath();
+        cookie.setPath(contextPath.isEmpty() ? "/" : contextPath);
+        cookie.setMaxAge(maxAge);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setAttribute("SameSite", "Lax");
+        return cookie;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.security;
+
+/**
+ * Формат выдаваемого токена доступа
+ * 
+ * JWS - стандартный JWT (header.payload.signature в JSON), понятен любым библиотекам
+ * COMPACT - бинарный формат CompactTokenCodec, короче заголовок и дешевле разбор
+ */
+public enum TokenFormat {
+    JWS,
+    COMPACT;
+
+    /**
+     * Разбор значения из запроса клиента, по умолчанию JWS
+     */
+    public static TokenFormat fromString(String value) {
+        if (value != null && value.equalsIgnoreCase("compact")) {
+            return COMPACT;
+        }
+        return JWS;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.security;
+
+import com.example.demo.dto.IntrospectionResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пакетная проверка токенов для внутренних сервисов
+ * 
+ * 1. Повторяющиеся токены проверяются один раз
+ * 2. Уникальные токены делятся на порции по числу ядер; порции проверяются
+ *    параллельно на пуле потоков, последнюю проверяет поток запроса
+ * 3. Небольшие пакеты (до PARALLEL_THRESHOLD) проверяются в потоке запроса -
+ *    передача задач в пул дороже самой проверки HMAC
+ * 
+ * Токен активен, если подпись верна, срок не истек и токен не отозван
+ * отключением или удалением пользователя (DisabledPrincipalRegistry).
+ */
+@Component
+public class TokenIntrospectionService {
+
+    private static final int PARALLEL_THRESHOLD = 16;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private DisabledPrincipalRegistry disabledPrincipals;
+
+    @Value("${security.introspection.max-batch:1000}")
+    private int maxBatch;
+
+    private final int parallelism;
+    private final ThreadPoolExecutor workers;
+
+    public TokenIntrospectionService() {
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Очередь ограничена: при переполнении порцию проверяет поток запроса
+        this.workers = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism * 4),
+                task -> {
+                    Thread thread = new Thread(task, "introspection-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    /**
+     * Проверка пакета токенов
+     * 
+     * @return результаты в порядке токенов запроса
+     */
+    public List<IntrospectionResponse.Result> introspect(List<String> tokens) {
+        Map<String, Integer> distinctIndex = new HashMap<>();
+        List<String> distinct = new ArrayList<>();
+        int[] slots = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            Integer index = distinctIndex.putIfAbsent(token, distinct.size());
+            if (index == null) {
+                index = distinct.size();
+                distinct.add(token);
+            }
+            slots[i] = index;
+        }
+
+        IntrospectionResponse.Result[] results = new IntrospectionResponse.Result[distinct.size()];
+        if (distinct.size() < PARALLEL_THRESHOLD || parallelism == 1) {
+            verifyRange(distinct, results, 0, distinct.size());
+        } else {
+            verifyParallel(distinct, results);
+        }
+
+        List<IntrospectionResponse.Result> ordered = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            ordered.add(results[slot]);
+        }
+        return ordered;
+    }
+
+    private void verifyParallel(List<String> distinct, IntrospectionResponse.Result[] results) {
+        int chunk = (distinct.size() + parallelism - 1) / parallelism;
+        List<Future<?>> futures = new ArrayList<>(parallelism);
+        int from = 0;
+        for (; from + chunk < distinct.size(); from += chunk) {
+            int start = from;
+            futures.add(workers.submit(() -> verifyRange(distinct, results, start, start + chunk)));
+        }
+        verifyRange(distinct, results, from, distinct.size());
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Проверка токенов прервана", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка проверки токенов", e.getCause());
+            }
+        }
+    }
+
+    private void verifyRange(List<String> tokens, IntrospectionResponse.Result[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = verify(tokens.get(i));
+        }
+    }
+
+    private IntrospectionResponse.Result verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return IntrospectionResponse.Result.INACTIVE;
+        }
+        Jwt jwt = tokenProvider.decodeValidToken(token);
+        if (jwt == null || disabledPrincipals.isRevoked(jwt)) {
+            return IntrospectionResponse.Result.INACTIVE;
+        }
+        List<String> authorities = tokenProvider.getAuthentication(jwt).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        return new IntrospectionResponse.Result(
+                true,
+                jwt.getSubject(),
+                authorities,
+                jwt.getIssuedAt() != null ? jwt.getIssuedAt().getEpochSecond() : null,
+                jwt.getExpiresAt() != null ? jwt.getExpiresAt().getEpochSecond() : null,
+                CompactTokenCodec.isCompact(token) ? "compact" : "jws");
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReplicaLagGuard;
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.AccountStatusChange;
+import com.example.demo.security.AccountStatusFeed;
+import com.example.demo.security.DisabledPrincipalRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Включение и отключение учетных записей
+ * 
+ * Изменение сохраняется в users.enabled, отключение и удаление - еще и в
+ * revoked_principals (в той же транзакции). Затем изменение рассылается через
+ * AccountStatusFeed: каждый узел обновляет DisabledPrincipalRegistry (JWT,
+ * выданные до отзыва, перестают приниматься) и сбрасывает кэш
+ * TieredUserDetailsService (вход по паролю тоже сразу запрещен).
+ * 
+ * Включение учетной записи отзыв не снимает: токены, выданные до отключения,
+ * так и остаются недействительными, новые после входа - принимаются.
+ * 
+ * Рассылка выполняется после коммита: при откате транзакции узлы
+ * не должны увидеть статус, которого нет в БД.
+ */
+@Service
+public class AccountStatusService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountStatusFeed accountStatusFeed;
+
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+
+    @Autowired
+    private DisabledPrincipalRegistry disabledPrincipals;
+
+    /**
+     * @return пользователь или пустой Optional, если id не найден
+     */
+    @Transactional
+    public Optional<User> setEnabled(Long id, boolean enabled) {
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(u -> {
+            u.setEnabled(enabled);
+            userRepository.save(u);
+            replicaLagGuard.markWritten(u.getUsername());
+            Instant revokedAt = enabled ? null : disabledPrincipals.persist(u.getUsername());
+            publishAfterCommit(new AccountStatusChange(u.getUsername(), !enabled, revokedAt));
+        });
+        return user;
+    }
+
+    /**
+     * Пользователь удален - его токены больше не принимаются
+     * 
+     * Отзыв остается и при повторной регистрации того же имени:
+     * новый пользователь получает токены, выданные позже отзыва
+     */
+    @Transactional
+    public void deleted(String username) {
+        Instant revokedAt = disabledPrincipals.persist(username);
+        publishAfterCommit(new AccountStatusChange(username, true, revokedAt));
+    }
+
+    private void publishAfterCommit(AccountStatusChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accountStatusFeed.publish(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accountStatusFeed.publish(change);
+            }
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.config.ReplicaLagGuard;
 import com.example.demo.entity.User;
 import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +12,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -25,6 +27,8 @@ import java.util.stream.Collectors;
  * 2. Загрузку пользователя из базы данных
  * 3. Преобразование ролей в GrantedAuthority
  * 4. Обработку исключений при отсутствии пользователя
+ * 5. Чтение с реплики (read-only транзакция), кроме пользователей,
+ *    измененных только что - они читаются с основной БД
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -32,6 +36,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+    
     /**
      * Загружает пользователя по имени пользователя
      * 
@@ -42,7 +49,10 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        Optional<User> found = replicaLagGuard.recentlyWritten(username)
+            ? replicaLagGuard.onPrimary(() -> userRepository.findByUsername(username))
+            : userRepository.findByUsername(username);
+        User user = found
             .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
         
         // Преобразуем роли в GrantedAuthority
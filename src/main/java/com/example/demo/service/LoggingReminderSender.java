@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Канал доставки по умолчанию - только вывод в лог
+ * Настоящий канал подключается бином ReminderSender с @Primary
+ */
+@Component
+public class LoggingReminderSender implements ReminderSender {
+
+    @Override
+    public void send(String reminder, List<String> usernames) {
+        System.out.println("Напоминание " + reminder + ": отправлено " + usernames.size() + " пользователям");
+    }
+}
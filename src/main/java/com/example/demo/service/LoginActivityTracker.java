@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отложенная запись lastLoginAt и loginCount пользователей (write-behind)
+ * 
+ * Успешный вход (форма или /api/auth/login) не пишет в БД: в памяти
+ * обновляется одна запись на пользователя - последнее время входа и число
+ * входов с последнего сброса. Сколько бы раз ни входила служебная учетная
+ * запись, в БД уйдет одно обновление за интервал.
+ * 
+ * Раз в login-activity.flush-interval накопленное записывается одним
+ * JDBC batch UPDATE; также сброс выполняется при остановке приложения.
+ * Счетчик прибавляется (login_count + n), время только увеличивается -
+ * узлы кластера могут сбрасывать свои данные независимо.
+ * 
+ * Окно потерь: при аварийном завершении процесса (kill -9, падение JVM)
+ * теряются входы за последний интервал сброса (по умолчанию до 10 секунд).
+ * При ошибке записи данные возвращаются в память и пишутся следующим сбросом.
+ * Для политик неактивности (дни, недели) такая точность достаточна.
+ */
+@Service
+@Lazy(false)
+public class LoginActivityTracker {
+
+    private static final String UPDATE_SQL =
+            "UPDATE users SET login_count = login_count + ?, " +
+            "last_login_at = CASE WHEN last_login_at IS NULL OR last_login_at < ? THEN ? ELSE last_login_at END " +
+            "WHERE username = ?";
+
+    /**
+     * Накопленные входы пользователя (неизменяемая запись - объединяется через merge)
+     */
+    private record Pending(Instant lastLoginAt, long count) {
+        Pending plus(Pending other) {
+            Instant latest = lastLoginAt.isAfter(other.lastLoginAt) ? lastLoginAt : other.lastLoginAt;
+            return new Pending(latest, count + other.count);
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onLogin(AuthenticationSuccessEvent event) {
+        recordLogin(event.getAuthentication().getName(), Instant.now());
+    }
+
+    /**
+     * Учет входа в памяти (без обращения к БД)
+     */
+    public void recordLogin(String username, Instant at) {
+        pending.merge(username, new Pending(at, 1), Pending::plus);
+    }
+
+    /**
+     * Количество пользователей с несохраненными входами
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Запись накопленных входов одним batch UPDATE
+     * 
+     * Каждая запись забирается из карты атомарно (remove), поэтому вход,
+     * пришедший во время сброса, попадет в новую запись и в следующий сброс.
+     * 
+     * @return количество записанных пользователей
+     */
+    @Scheduled(fixedDelayString = "${login-activity.flush-interval:10s}")
+    public synchronized int flush() {
+        List<String> usernames = new ArrayList<>();
+        List<Pending> values = new ArrayList<>();
+        for (String username : pending.keySet()) {
+            Pending value = pending.remove(username);
+            if (value != null) {
+                usernames.add(username);
+                values.add(value);
+            }
+        }
+        if (usernames.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> rows = new ArrayList<>(usernames.size());
+        for (int i = 0; i < usernames.size(); i++) {
+            Timestamp at = Timestamp.from(values.get(i).lastLoginAt());
+            rows.add(new Object[]{values.get(i).count(), at, at, usernames.get(i)});
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        } catch (RuntimeException e) {
+            // Возвращаем в память - запишется следующим сбросом
+            for (int i = 0; i < usernames.size(); i++) {
+                pending.merge(usernames.get(i), values.get(i), Pending::plus);
+            }
+            System.out.println("Не удалось сохранить активность входа: " + e.getMessage());
+            return 0;
+        }
+        return usernames.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.Movie;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Каталог фильмов поверх OMDb API (movie.api.base.url, movie.api.key)
+ *
+ * Демонстрирует:
+ * 1. Неблокирующие запросы через java.net.http.HttpClient (sendAsync)
+ * 2. Объединение одинаковых запросов: пока идет запрос за названием,
+ *    остальные вызывающие получают тот же CompletableFuture
+ * 3. Ограниченный кэш с TTL (включая ответы "не найдено")
+ * 4. Circuit breaker: после серии ошибок upstream не вызывается
+ *    заданное время, вместо этого отдается устаревшая запись кэша или ошибка
+ * 5. Ограничение частоты запросов к upstream (movie.rate-limit.per-second):
+ *    сверх лимита запрос не ждет, а сразу получает устаревшую запись кэша или ошибку
+ */
+@Service
+public class MovieCatalogService {
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String apiKey;
+    private final List<String> genres;
+    private final Duration requestTimeout;
+
+    private final TtlCache cache;
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final Map<String, CompletableFuture<Optional<Movie>>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MovieCatalogService(
+            ObjectMapper objectMapper,
+            @Value("${movie.api.base.url:https://www.omdbapi.com/}") String baseUrl,
+            @Value("${movie.api.key:}") String apiKey,
+            @Value("${movie.genres:}") List<String> genres,
+            @Value("${movie.cache.ttl:10m}") Duration cacheTtl,
+            @Value("${movie.cache.max-size:1000}") int cacheMaxSize,
+            @Value("${movie.request.timeout:3s}") Duration requestTimeout,
+            @Value("${movie.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${movie.breaker.open-duration:30s}") Duration openDuration,
+            @Value("${movie.rate-limit.per-second:5}") int ratePerSecond) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.genres = List.copyOf(genres);
+        this.requestTimeout = requestTimeout;
+        this.cache = new TtlCache(cacheMaxSize, cacheTtl.toNanos());
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration.toNanos());
+        this.rateLimiter = new RateLimiter(ratePerSecond);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    /**
+     * Исключение, когда upstream недоступен и в кэше нет даже устаревшей записи
+     */
+    public static class CatalogUnavailableException extends RuntimeException {
+        public CatalogUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Жанры из movie.genres
+     */
+    public List<String> getGenres() {
+        return genres;
+    }
+
+    /**
+     * Поиск фильма по названию
+     *
+     * @return фильм или пустой Optional, если OMDb его не знает;
+     *         при недоступности upstream future завершается CatalogUnavailableException
+     */
+    public CompletableFuture<Optional<Movie>> findByTitle(String title) {
+        String key = title.trim().toLowerCase(Locale.ROOT);
+
+        TtlCache.Entry cached = cache.get(key);
+        if (cached != null && !cached.isExpired(System.nanoTime())) {
+            return CompletableFuture.completedFuture(cached.movie());
+        }
+
+        CompletableFuture<Optional<Movie>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<Movie>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<Optional<Movie>> upstream;
+        try {
+            upstream = fetch(title.trim());
+        } catch (RuntimeException e) {
+            // Синхронная ошибка (неверный URI, отказ sendAsync): иначе ключ остался бы
+            // в inFlight навсегда и все следующие вызовы ждали бы этот future
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        upstream.whenComplete((movie, error) -> {
+            if (error == null) {
+                cache.put(key, movie);
+            }
+            // Удаляем после записи в кэш, чтобы следующий вызов не пошел в upstream
+            inFlight.remove(key, created);
+            if (error == null) {
+                created.complete(movie);
+            } else if (cached != null) {
+                // Upstream недоступен - устаревшая запись лучше ошибки
+                created.complete(cached.movie());
+            } else {
+                created.completeExceptionally(
+                        new CatalogUnavailableException("Каталог фильмов недоступен", error));
+            }
+        });
+        return created;
+    }
+
+    private CompletableFuture<Optional<Movie>> fetch(String title) {
+        // Лимит проверяется первым: отказ по лимиту не должен занимать пробный запрос breaker
+        if (!rateLimiter.tryAcquire()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Превышен лимит запросов к OMDb"));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Circuit breaker открыт"));
+        }
+
+        URI uri = URI.create(baseUrl + "?apikey=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8)
+                + "&t=" + URLEncoder.encode(title, StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("OMDb вернул статус " + response.statusCode());
+                    }
+                    return parse(response.body());
+                })
+                .whenComplete((movie, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                    } else {
+                        circuitBreaker.onFailure();
+                    }
+                });
+    }
+
+    private Optional<Movie> parse(byte[] body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            // OMDb отвечает 200 и {"Response":"False","Error":"Movie not found!"}
+            if (!"True".equalsIgnoreCase(node.path("Response").asText())) {
+                return Optional.empty();
+            }
+            return Optional.of(objectMapper.treeToValue(node, Movie.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Кэш с TTL и ограничением размера (вытесняется давно не использованная запись)
+     * Истекшие записи не удаляются сразу - они нужны как запасной ответ,
+     * пока circuit breaker открыт
+     */
+    private static final class TtlCache {
+
+        record Entry(Optional<Movie> movie, long expiresAtNanos) {
+            boolean isExpired(long now) {
+                return now - expiresAtNanos > 0;
+            }
+        }
+
+        private final long ttlNanos;
+        private final Map<String, Entry> entries;
+
+        TtlCache(int maxSize, long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized Entry get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, Optional<Movie> movie) {
+            entries.put(key, new Entry(movie, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Простейший circuit breaker
+     * CLOSED -> (failureThreshold ошибок подряд) -> OPEN -> (openDuration) -> HALF_OPEN:
+     * пропускается один пробный запрос, успех закрывает breaker, ошибка снова открывает
+     */
+    private static final class CircuitBreaker {
+
+        private final int failureThreshold;
+        private final long openNanos;
+
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean open;
+        private boolean trialInProgress;
+
+        CircuitBreaker(int failureThreshold, long openNanos) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = openNanos;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (!open) {
+                return true;
+            }
+            if (!trialInProgress && System.nanoTime() - openedAt >= openNanos) {
+                trialInProgress = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            open = false;
+            trialInProgress = false;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (trialInProgress || consecutiveFailures >= failureThreshold) {
+                open = true;
+                openedAt = System.nanoTime();
+                trialInProgress = false;
+            }
+        }
+    }
+
+    /**
+     * Token bucket: permitsPerSecond запросов в секунду, запас не больше permitsPerSecond
+     */
+    private static final class RateLimiter {
+
+        private final double permitsPerNano;
+        private final double maxPermits;
+
+        private double permits;
+        private long lastRefill = System.nanoTime();
+
+        RateLimiter(int permitsPerSecond) {
+            this.permitsPerNano = permitsPerSecond / 1_000_000_000.0;
+            this.maxPermits = permitsPerSecond;
+            this.permits = permitsPerSecond;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            permits = Math.min(maxPermits, permits + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            if (permits < 1) {
+                return false;
+            }
+            permits--;
+            return true;
+        }
+    }
+}
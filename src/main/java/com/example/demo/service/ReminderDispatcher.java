@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Рассылка напоминаний всем активным пользователям
+ * 
+ * Как устроен запуск:
+ * 1. Блокировка в БД (SchedulerLockService) - на всех узлах cron срабатывает
+ *    одновременно, рассылку выполняет только один
+ * 2. Запись reminder_runs с ключом "напоминание:дата" - контрольная точка.
+ *    Завершенный запуск (DONE) повторно не выполняется. Незавершенный (RUNNING)
+ *    после падения узла или ошибки отправки подхватывает resumeInterrupted -
+ *    при старте и раз в reminder.resume-interval, как только истечет блокировка
+ *    (живой узел ее продлевает), - и продолжает с last_user_id
+ * 3. Пользователи читаются keyset пагинацией порциями по chunk-size,
+ *    каждый запрос - короткий и в своей транзакции (нет одной длинной)
+ * 4. Порции отправляются на ограниченный пул потоков; после каждой волны
+ *    из workers порций блокировка продлевается, и контрольная точка сдвигается
+ *    на последний id волны - только пока блокировка у этого узла. Узел, потерявший
+ *    блокировку, не перезаписывает точку, с которой уже работает другой узел;
+ *    его последняя волна может быть отправлена повторно (доставка "хотя бы раз")
+ * 
+ * Рассылку ведет отдельный поток reminder-coordinator: dispatch возвращается
+ * сразу, и единственный поток планировщика Spring не ждет конца рассылки -
+ * LoginActivityTracker, JdbcAccountStatusFeed и проверка отставания реплики
+ * продолжают выполняться по расписанию.
+ * 
+ * В памяти одновременно не больше workers * chunk-size имен пользователей.
+ */
+@Service
+public class ReminderDispatcher {
+
+    private static final String STATUS_RUNNING = "RUNNING";
+    private static final String STATUS_DONE = "DONE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SchedulerLockService lockService;
+
+    @Autowired
+    private ReminderSender reminderSender;
+
+    @Value("${reminder.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${reminder.lock-lease:5m}")
+    private Duration lockLease;
+
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService coordinator;
+
+    /**
+     * Запуски, уже поставленные в очередь координатора на продолжение
+     */
+    private final Set<String> queuedResumes = ConcurrentHashMap.newKeySet();
+
+    public ReminderDispatcher(@Value("${reminder.workers:4}") int workerCount) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Очередь ограничена: при переполнении порцию отправляет поток координатора
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workerCount),
+                task -> {
+                    Thread thread = new Thread(task, "reminder-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.coordinator = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "reminder-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdown();
+        workers.shutdown();
+    }
+
+    /**
+     * Запуск рассылки в потоке reminder-coordinator, без ожидания завершения
+     * Запуски выполняются по очереди; повторный запуск того же напоминания
+     * отсекается блокировкой и записью reminder_runs
+     * 
+     * @param reminder имя напоминания (morning, afternoon, evening, monthly)
+     */
+    public void dispatch(String reminder) {
+        coordinator.execute(() -> run(reminder + ":" + LocalDate.now(), reminder));
+    }
+
+    /**
+     * Продолжение прерванных запусков (RUNNING) любой даты
+     * 
+     * Запуск, который ведет живой узел, пропускается: его блокировка продлевается
+     * после каждой волны и не истекает. Сама проверка - один короткий запрос,
+     * рассылка продолжается в потоке reminder-coordinator.
+     */
+    @Scheduled(fixedDelayString = "${reminder.resume-interval:1m}")
+    public void resumeInterrupted() {
+        List<String[]> interrupted = jdbcTemplate.query(
+                "SELECT run_key, reminder FROM reminder_runs WHERE status = ? ORDER BY started_at",
+                (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)},
+                STATUS_RUNNING);
+        for (String[] run : interrupted) {
+            String runKey = run[0];
+            if (queuedResumes.add(runKey)) {
+                coordinator.execute(() -> {
+                    queuedResumes.remove(runKey);
+                    run(runKey, run[1]);
+                });
+            }
+        }
+    }
+
+    private void run(String runKey, String reminder) {
+        String lockName = "reminder:" + reminder;
+        if (!lockService.tryLock(lockName, lockLease)) {
+            return;
+        }
+        try {
+            Long checkpoint = startOrResume(runKey, reminder);
+            if (checkpoint == null) {
+                return;
+            }
+
+            long lastId = checkpoint;
+            int sent = 0;
+            while (true) {
+                // Волна: до getCorePoolSize() порций параллельно
+                List<Future<?>> wave = new ArrayList<>();
+                long waveLastId = lastId;
+                for (int i = 0; i < workers.getCorePoolSize(); i++) {
+                    List<Object[]> chunk = nextChunk(waveLastId);
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    waveLastId = (Long) chunk.get(chunk.size() - 1)[0];
+                    List<String> usernames = new ArrayList<>(chunk.size());
+                    for (Object[] row : chunk) {
+                        usernames.add((String) row[1]);
+                    }
+                    sent += usernames.size();
+                    wave.add(workers.submit(() -> reminderSender.send(reminder, usernames)));
+                }
+                if (wave.isEmpty()) {
+                    break;
+                }
+                for (Future<?> future : wave) {
+                    future.get();
+                }
+
+                lastId = waveLastId;
+                // Сначала продление, затем запись точки при условии, что блокировка все еще наша
+                if (!lockService.extend(lockName, lockLease) || !updateIfLocked(lockName,
+                        "UPDATE reminder_runs SET last_user_id = ? WHERE run_key = ?", lastId, runKey)) {
+                    // Блокировку перехватил другой узел - он продолжит с контрольной точки
+                    return;
+                }
+            }
+
+            if (!updateIfLocked(lockName, "UPDATE reminder_runs SET status = ?, finished_at = ? WHERE run_key = ?",
+                    STATUS_DONE, Timestamp.from(Instant.now()), runKey)) {
+                return;
+            }
+            System.out.println("Напоминание " + reminder + " завершено, получателей: " + sent);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Контрольная точка осталась на последней успешной волне
+            System.err.println("Ошибка рассылки " + reminder + ": " + e.getCause());
+        } finally {
+            lockService.unlock(lockName);
+        }
+    }
+
+    /**
+     * Создание записи запуска или продолжение прерванного
+     * 
+     * @return id, после которого продолжать, или null, если запуск уже завершен
+     */
+    private Long startOrResume(String runKey, String reminder) {
+        List<Object[]> existing = jdbcTemplate.query(
+                "SELECT status, last_user_id FROM reminder_runs WHERE run_key = ?",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getLong(2)},
+                runKey);
+        if (existing.isEmpty()) {
+            jdbcTemplate.update(
+                    "INSERT INTO reminder_runs (run_key, reminder, last_user_id, status, started_at) VALUES (?, ?, ?, ?, ?)",
+                    runKey, reminder, 0L, STATUS_RUNNING, Timestamp.from(Instant.now()));
+            return 0L;
+        }
+        Object[] run = existing.get(0);
+        return STATUS_DONE.equals(run[0]) ? null : (Long) run[1];
+    }
+
+    /**
+     * UPDATE reminder_runs, который выполняется, только пока блокировка у этого узла
+     * 
+     * @param sql UPDATE ... WHERE ..., к условию добавляется проверка scheduler_locks
+     * @return false, если блокировка уже у другого узла
+     */
+    private boolean updateIfLocked(String lockName, String sql, Object... args) {
+        Object[] fenced = Arrays.copyOf(args, args.length + 3);
+        fenced[args.length] = lockName;
+        fenced[args.length + 1] = lockService.getNodeName();
+        fenced[args.length + 2] = Timestamp.from(Instant.now());
+        return jdbcTemplate.update(sql + " AND EXISTS (SELECT 1 FROM scheduler_locks"
+                + " WHERE name = ? AND locked_by = ? AND locked_until > ?)", fenced) == 1;
+    }
+
+    private List<Object[]> nextChunk(long afterId) {
+        return jdbcTemplate.query(
+                "SELECT id, username FROM users WHERE enabled = TRUE AND id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)},
+                afterId, chunkSize);
+    }
+}
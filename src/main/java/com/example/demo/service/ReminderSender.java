@@ -0,0 +1,17 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+/**
+ * Канал доставки напоминаний (email, push и т.д.)
+ */
+public interface ReminderSender {
+
+    /**
+     * Отправка напоминания порции пользователей
+     * 
+     * @param reminder имя напоминания (morning, afternoon, ...)
+     * @param usernames получатели
+     */
+    void send(String reminder, List<String> usernames);
+}
@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Блокировки задач планировщика через таблицу scheduler_locks
+ * 
+ * Захват - один условный UPDATE (или INSERT для новой задачи), поэтому
+ * из нескольких узлов, сработавших по одному cron, задачу получает один.
+ * Блокировка ограничена по времени: если узел упал, она истечет сама.
+ * Владелец продлевает ее, пока работает (extend).
+ */
+@Service
+public class SchedulerLockService {
+
+    private final String nodeName = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Имя узла в scheduler_locks.locked_by
+     */
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    /**
+     * Попытка захватить блокировку
+     * 
+     * @return true, если блокировка получена этим узлом
+     */
+    public boolean tryLock(String name, Duration leaseTime) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp until = Timestamp.from(Instant.now().plus(leaseTime));
+
+        int updated = jdbcTemplate.update(
+                "UPDATE scheduler_locks SET locked_until = ?, locked_by = ? WHERE name = ? AND locked_until <= ?",
+                until, nodeName, name, now);
+        if (updated == 1) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO scheduler_locks (name, locked_until, locked_by) VALUES (?, ?, ?)",
+                    name, until, nodeName);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Блокировка существует и еще не истекла - ее держит другой узел
+            return false;
+        }
+    }
+
+    /**
+     * Продление блокировки владельцем
+     * 
+     * @return false, если блокировка уже потеряна (истекла и захвачена другим узлом)
+     */
+    public boolean extend(String name, Duration leaseTime) {
+        Timestamp until = Timestamp.from(Instant.now().plus(leaseTime));
+        return jdbcTemplate.update(
+                "UPDATE scheduler_locks SET locked_until = ? WHERE name = ? AND locked_by = ?",
+                until, name, nodeName) == 1;
+    }
+
+    /**
+     * Освобождение блокировки
+     */
+    public void unlock(String name) {
+        jdbcTemplate.update(
+                "UPDATE scheduler_locks SET locked_until = ? WHERE name = ? AND locked_by = ?",
+                Timestamp.from(Instant.now()), name, nodeName);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.service;
+
+import com.example.demo.security.AccountStatusFeed;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Единственный UserDetailsService приложения - цепочка уровней
+ *
+ * 1. MEMORY - служебные (сервисные) учетные записи из настроек,
+ *    никогда не обращаются к БД
+ * 2. CACHE - недавно загруженные пользователи БД (ограниченный размер и TTL)
+ * 3. DATABASE - CustomUserDetailsService (JPA)
+ *
+ * Служебные учетные записи задаются списком (хеш BCrypt, роли через пробел):
+ * security.service-accounts=monitoring|$2a$12$...|MONITORING,gateway|$2a$12$...|SERVICE ADMIN
+ *
+ * Для каждого уровня считается, сколько запросов он обслужил.
+ * Изменение статуса учетной записи (AccountStatusFeed) сбрасывает ее из кэша.
+ */
+@Service
+@Primary
+public class TieredUserDetailsService implements UserDetailsService {
+
+    /**
+     * Уровни цепочки
+     */
+    public enum Tier {
+        MEMORY,
+        CACHE,
+        DATABASE,
+        NOT_FOUND
+    }
+
+    private final Map<String, UserDetails> serviceAccounts = new HashMap<>();
+    private final Map<Tier, LongAdder> hits = new LinkedHashMap<>();
+    private final UserCache cache;
+
+    @Autowired
+    private CustomUserDetailsService databaseUserDetailsService;
+
+    @Autowired
+    private AccountStatusFeed accountStatusFeed;
+
+    public TieredUserDetailsService(
+            @Value("${security.service-accounts:}") List<String> accounts,
+            @Value("${security.user-cache.ttl:60s}") Duration cacheTtl,
+            @Value("${security.user-cache.max-size:10000}") int cacheMaxSize) {
+        for (String account : accounts) {
+            String[] parts = account.trim().split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(
+                        "Неверный формат security.service-accounts (ожидается имя|хеш|роли): " + parts[0]);
+            }
+            serviceAccounts.put(parts[0], User.withUsername(parts[0])
+                    .password(parts[1])
+                    .roles(parts[2].trim().split("\\s+"))
+                    .build());
+        }
+        for (Tier tier : Tier.values()) {
+            hits.put(tier, new LongAdder());
+        }
+        this.cache = new UserCache(cacheMaxSize, cacheTtl.toNanos());
+    }
+
+    @PostConstruct
+    void subscribeToStatusChanges() {
+        accountStatusFeed.subscribe(change -> evict(change.username()));
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails serviceAccount = serviceAccounts.get(username);
+        if (serviceAccount != null) {
+            hits.get(Tier.MEMORY).increment();
+            return copy(serviceAccount);
+        }
+
+        UserDetails cached = cache.get(username);
+        if (cached != null) {
+            hits.get(Tier.CACHE).increment();
+            return copy(cached);
+        }
+
+        try {
+            UserDetails loaded = databaseUserDetailsService.loadUserByUsername(username);
+            hits.get(Tier.DATABASE).increment();
+            cache.put(username, loaded);
+            return copy(loaded);
+        } catch (UsernameNotFoundException e) {
+            hits.get(Tier.NOT_FOUND).increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Удаление пользователя из кэша (после удаления, блокировки, смены пароля)
+     */
+    public void evict(String username) {
+        cache.remove(username);
+    }
+
+    /**
+     * Количество запросов, обслуженных каждым уровнем
+     */
+    public Map<Tier, Long> getTierHits() {
+        Map<Tier, Long> result = new LinkedHashMap<>();
+        hits.forEach((tier, counter) -> result.put(tier, counter.sum()));
+        return result;
+    }
+
+    /**
+     * Копия для вызывающего: ProviderManager стирает пароль у principal
+     * после аутентификации, и он не должен пропасть из кэша
+     */
+    private static UserDetails copy(UserDetails userDetails) {
+        return User.withUserDetails(userDetails).build();
+    }
+
+    /**
+     * LRU кэш пользователей с TTL
+     */
+    private static final class UserCache {
+
+        private record Entry(UserDetails userDetails, long expiresAtNanos) {
+        }
+
+        private final long ttlNanos;
+        private final Map<String, Entry> entries;
+
+        UserCache(int maxSize, long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized UserDetails get(String username) {
+            Entry entry = entries.get(username);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+                entries.remove(username);
+                return null;
+            }
+            return entry.userDetails();
+        }
+
+        synchronized void put(String username, UserDetails userDetails) {
+            entries.put(username, new Entry(userDetails, System.nanoTime() + ttlNanos));
+        }
+
+        synchronized void remove(String username) {
+            entries.remove(username);
+        }
+    }
+}
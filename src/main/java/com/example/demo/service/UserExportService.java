@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковая выгрузка пользователей с ролями для аудита
+ * 
+ * Вместо UserRepository.findAll() (все сущности и EAGER роли в памяти)
+ * используется один запрос с forward-only курсором и фиксированным fetch size.
+ * Строки соединения users x roles приходят упорядоченными по id пользователя,
+ * роли собираются, пока id не сменится, и пользователь сразу пишется в ответ.
+ * В памяти одновременно находится одна порция курсора и один пользователь.
+ * 
+ * Транзакция нужна PostgreSQL: без нее драйвер игнорирует fetch size
+ * и читает весь результат в память.
+ */
+@Service
+public class UserExportService {
+
+    public static final int FETCH_SIZE = 1_000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String EXPORT_SQL = """
+            SELECT u.id, u.username, u.enabled, r.name
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            ORDER BY u.id""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Формат выгрузки
+     */
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        public static Format fromString(String value) {
+            return "ndjson".equalsIgnoreCase(value) ? NDJSON : CSV;
+        }
+    }
+
+    /**
+     * Получатель строк выгрузки
+     */
+    private interface RowWriter {
+        void write(long id, String username, boolean enabled, List<String> roles) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Выгрузка всех пользователей в поток
+     */
+    @Transactional(readOnly = true)
+    public void export(Format format, OutputStream out) throws IOException {
+        RowWriter writer = format == Format.NDJSON ? ndjsonWriter(out) : csvWriter(out);
+
+        long[] currentId = {-1L};
+        String[] currentUsername = {null};
+        boolean[] currentEnabled = {false};
+        List<String> currentRoles = new ArrayList<>();
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, (ResultSet rs) -> {
+                long id = rs.getLong(1);
+                if (id != currentId[0]) {
+                    if (currentId[0] >= 0) {
+                        writeUnchecked(writer, currentId[0], currentUsername[0], currentEnabled[0], currentRoles);
+                    }
+                    currentId[0] = id;
+                    currentUsername[0] = rs.getString(2);
+                    currentEnabled[0] = rs.getBoolean(3);
+                    currentRoles.clear();
+                }
+                String role = rs.getString(4);
+                if (role != null) {
+                    currentRoles.add(role);
+                }
+            });
+            if (currentId[0] >= 0) {
+                writer.write(currentId[0], currentUsername[0], currentEnabled[0], currentRoles);
+            }
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeUnchecked(RowWriter writer, long id, String username, boolean enabled,
+                                       List<String> roles) {
+        try {
+            writer.write(id, username, enabled, roles);
+        } catch (IOException e) {
+            // Клиент оборвал загрузку - прерываем чтение курсора
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RowWriter csvWriter(OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        csv.write("id,username,enabled,roles\n");
+        return new RowWriter() {
+            @Override
+            public void write(long id, String username, boolean enabled, List<String> roles) throws IOException {
+                csv.write(Long.toString(id));
+                csv.write(',');
+                writeCsvValue(csv, username);
+                csv.write(enabled ? ",true," : ",false,");
+                writeCsvValue(csv, String.join(";", roles));
+                csv.write('\n');
+            }
+
+            @Override
+            public void finish() throws IOException {
+                csv.flush();
+            }
+        };
+    }
+
+    private RowWriter ndjsonWriter(OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        // Каждый объект на своей строке, без разделителя-пробела между корневыми значениями
+        json.setRootValueSeparator(null);
+        return new RowWriter() {
+            @Override
+            public void write(long id, String username, boolean enabled, List<String> roles) throws IOException {
+                json.writeStartObject();
+                json.writeNumberField("id", id);
+                json.writeStringField("username", username);
+                json.writeBooleanField("enabled", enabled);
+                json.writeArrayFieldStart("roles");
+                for (String role : roles) {
+                    json.writeString(role);
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+
+            @Override
+            public void finish() throws IOException {
+                json.flush();
+            }
+        };
+    }
+
+    private static void writeCsvValue(Writer csv, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Поиск пользователей с keyset пагинацией
+ * 
+ * Вместо OFFSET следующая страница выбирается условием "после последней
+ * строки предыдущей страницы" по колонкам сортировки, поэтому стоимость
+ * запроса не растет с номером страницы.
+ * 
+ * Результат пишется в JSON потоково, строка за строкой из ResultSet,
+ * без сборки списка сущностей в памяти:
+ * <pre>
+ * {"items":[{"id":1,"username":"admin","enabled":true}, ...],"next":"курсор или null"}
+ * </pre>
+ */
+@Service
+public class UserSearchService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Колонки, доступные для фильтра и сортировки (имя параметра -> колонка)
+     */
+    private static final Map<String, String> COLUMNS = Map.of(
+            "id", "id",
+            "username", "username",
+            "enabled", "enabled");
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Режим сравнения строки поиска
+     * PREFIX использует уникальный индекс users.username, CONTAINS - полный просмотр
+     */
+    public enum Match {
+        PREFIX,
+        CONTAINS
+    }
+
+    /**
+     * Колонка сортировки
+     */
+    private record SortKey(String column, boolean descending) {
+    }
+
+    /**
+     * Поиск и потоковая запись страницы результатов
+     * 
+     * @param query строка поиска (null или пустая - без фильтра)
+     * @param field поле поиска: username или id
+     * @param match режим сравнения для username
+     * @param sort сортировка, например "username,-id" (минус - по убыванию)
+     * @param cursor курсор из поля "next" предыдущей страницы
+     * @param limit размер страницы
+     * @param out поток ответа
+     */
+    public void search(String query, String field, Match match, String sort,
+                       String cursor, int limit, OutputStream out) throws IOException {
+        List<SortKey> sortKeys = parseSort(sort);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        StringBuilder sql = new StringBuilder("SELECT id, username, enabled FROM users WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        if (query != null && !query.isBlank()) {
+            if ("id".equals(field)) {
+                sql.append(" AND id = ?");
+                params.add(parseId(query.trim()));
+            } else {
+                sql.append(" AND username LIKE ? ESCAPE '\\'");
+                String escaped = escapeLike(query.trim());
+                params.add(match == Match.CONTAINS ? "%" + escaped + "%" : escaped + "%");
+            }
+        }
+
+        if (cursor != null && !cursor.isBlank()) {
+            appendKeyset(sql, params, sortKeys, decodeCursor(cursor, sortKeys));
+        }
+
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < sortKeys.size(); i++) {
+            SortKey key = sortKeys.get(i);
+            sql.append(i == 0 ? "" : ", ").append(key.column()).append(key.descending() ? " DESC" : " ASC");
+        }
+        // Одна лишняя строка показывает, есть ли следующая страница
+        sql.append(" LIMIT ?");
+        params.add(pageSize + 1);
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+
+            Object[] last = new Object[sortKeys.size()];
+            int[] written = {0};
+            boolean[] hasMore = {false};
+
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql.toString());
+                ps.setFetchSize(pageSize + 1);
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                return ps;
+            }, (ResultSet rs) -> {
+                if (written[0] == pageSize) {
+                    hasMore[0] = true;
+                    return;
+                }
+                writeRow(json, rs);
+                for (int i = 0; i < sortKeys.size(); i++) {
+                    last[i] = rs.getObject(sortKeys.get(i).column());
+                }
+                written[0]++;
+            });
+
+            json.writeEndArray();
+            json.writeStringField("next", hasMore[0] ? encodeCursor(last) : null);
+            json.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeRow(JsonGenerator json, ResultSet rs) throws SQLException {
+        try {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeStringField("username", rs.getString("username"));
+            json.writeBooleanField("enabled", rs.getBoolean("enabled"));
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Условие "строго после курсора" для сортировки по нескольким колонкам:
+     * (a > ?) OR (a = ? AND b > ?) OR (a = ? AND b = ? AND c > ?)
+     */
+    private void appendKeyset(StringBuilder sql, List<Object> params, List<SortKey> sortKeys, Object[] values) {
+        sql.append(" AND (");
+        for (int i = 0; i < sortKeys.size(); i++) {
+            sql.append(i == 0 ? "(" : " OR (");
+            for (int j = 0; j < i; j++) {
+                sql.append(sortKeys.get(j).column()).append(" = ? AND ");
+                params.add(values[j]);
+            }
+            SortKey key = sortKeys.get(i);
+            sql.append(key.column()).append(key.descending() ? " < ?" : " > ?").append(")");
+            params.add(values[i]);
+        }
+        sql.append(")");
+    }
+
+    /**
+     * Разбор параметра sort; id всегда добавляется последним,
+     * чтобы порядок был однозначным и курсор не пропускал строки
+     */
+    private List<SortKey> parseSort(String sort) {
+        List<SortKey> keys = new ArrayList<>();
+        boolean hasId = false;
+        if (sort != null) {
+            for (String part : sort.split(",")) {
+                String name = part.trim();
+                boolean descending = name.startsWith("-");
+                if (descending) {
+                    name = name.substring(1);
+                }
+                String column = COLUMNS.get(name);
+                if (column == null) {
+                    throw new IllegalArgumentException("Неизвестное поле сортировки: " + name);
+                }
+                if (keys.stream().noneMatch(k -> k.column().equals(column))) {
+                    keys.add(new SortKey(column, descending));
+                    hasId |= column.equals("id");
+                }
+            }
+        }
+        if (!hasId) {
+            keys.add(new SortKey("id", false));
+        }
+        return keys;
+    }
+
+    private String encodeCursor(Object[] values) throws IOException {
+        return CURSOR_ENCODER.encodeToString(objectMapper.writeValueAsBytes(values));
+    }
+
+    /**
+     * Разбор курсора с проверкой типов по колонкам сортировки
+     * Курсор приходит от клиента: значение не того типа должно дать 400,
+     * а не ошибку сравнения в БД
+     */
+    private Object[] decodeCursor(String cursor, List<SortKey> sortKeys) {
+        List<Object> values;
+        try {
+            values = objectMapper.readValue(
+                    new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8),
+                    new TypeReference<List<Object>>() {});
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неверный курсор", e);
+        }
+        if (values == null || values.size() != sortKeys.size()) {
+            throw new IllegalArgumentException("Курсор не соответствует сортировке");
+        }
+        Object[] result = new Object[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Object value = values.get(i);
+            boolean valid = switch (sortKeys.get(i).column()) {
+                case "id" -> value instanceof Integer || value instanceof Long;
+                case "username" -> value instanceof String;
+                case "enabled" -> value instanceof Boolean;
+                default -> false;
+            };
+            if (!valid) {
+                throw new IllegalArgumentException("Неверное значение курсора для " + sortKeys.get(i).column());
+            }
+            result[i] = value instanceof Integer number ? Long.valueOf(number) : value;
+        }
+        return result;
+    }
+
+    private Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("id должен быть числом: " + value);
+        }
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
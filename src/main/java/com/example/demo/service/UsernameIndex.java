@@ -0,0 +1,539 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Триграммный индекс имен пользователей в памяти
+ *
+ * Нужен для type-ahead поиска в админке: LIKE '%x%' по users.username
+ * на миллионах строк - полный просмотр таблицы.
+ *
+ * Устройство (только примитивные массивы, без объектов на пользователя):
+ * - каждому пользователю выдается порядковый номер (ordinal)
+ * - ids[ordinal] - id пользователя, имена лежат подряд в UTF-8 в nameBytes,
+ *   nameOffsets[ordinal] - начало имени
+ * - для каждой триграммы (3 байта имени, латиница без учета регистра)
+ *   хранится возрастающий int[] список ordinal
+ * - имя дополняется маркерами начала (2 байта) и конца (1 байт),
+ *   поэтому поиск по префиксу тоже идет через триграммы
+ *
+ * Удаление помечает ordinal как удаленный, место освобождается
+ * при пересборке, когда удаленных становится больше четверти.
+ *
+ * Пересборка (из таблицы и при сжатии) строит новую структуру Trigrams
+ * и подменяет ею текущую; write lock держится только на время подмены,
+ * поиск во время чтения таблицы продолжает работать по старому индексу.
+ * На время пересборки из таблицы в памяти находятся оба индекса.
+ *
+ * Индекс обновляется из AuthController.register и PeopleController.delete
+ * и полностью пересобирается из таблицы users при старте.
+ * Изменения, сделанные другими узлами, видны только после их перезапуска.
+ */
+@Service
+public class UsernameIndex {
+
+    private static final byte START = 1;
+    private static final byte END = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int FETCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Результат поиска
+     */
+    public record Match(long id, String username) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Текущий индекс; подменяется целиком под write lock
+    private Trigrams trigrams = new Trigrams();
+
+    // Изменения, сделанные во время пересборки из таблицы; null - пересборки нет
+    private List<Change> changesDuringRebuild;
+
+    private record Change(long id, String username) {
+    }
+
+    /**
+     * Пересборка индекса из таблицы users при старте
+     * (после DataInitializer, который выполняется как CommandLineRunner)
+     * 
+     * Транзакция нужна PostgreSQL: в режиме auto-commit драйвер игнорирует
+     * fetch size и загружает всю таблицу в память
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildFromDatabase() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Trigrams rebuilt = new Trigrams();
+        try {
+            jdbcTemplate.query(connection -> {
+                var ps = connection.prepareStatement("SELECT id, username FROM users");
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, rs -> {
+                rebuilt.put(rs.getLong(1), rs.getString(2));
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Регистрации и удаления, пришедшие во время чтения таблицы
+            for (Change change : changesDuringRebuild) {
+                if (change.username() == null) {
+                    rebuilt.remove(change.id());
+                } else {
+                    rebuilt.put(change.id(), change.username());
+                }
+            }
+            changesDuringRebuild = null;
+            trigrams = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Индекс имен пользователей построен: " + liveCount() + " записей");
+    }
+
+    /**
+     * Добавление (или замена) пользователя
+     */
+    public void add(long id, String username) {
+        lock.writeLock().lock();
+        try {
+            trigrams.put(id, username);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(new Change(id, username));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаление пользователя
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            trigrams.remove(id);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(new Change(id, null));
+            }
+            if (trigrams.needsCompaction()) {
+                trigrams = trigrams.compacted();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Количество пользователей в индексе
+     */
+    public int liveCount() {
+        lock.readLock().lock();
+        try {
+            return trigrams.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Поиск по началу имени без учета регистра (для латиницы)
+     */
+    public List<Match> searchPrefix(String prefix, int limit) {
+        byte[] query = fold(prefix);
+        byte[] padded = new byte[query.length + 2];
+        padded[0] = START;
+        padded[1] = START;
+        System.arraycopy(query, 0, padded, 2, query.length);
+        return search(padded, query, true, limit);
+    }
+
+    /**
+     * Поиск по подстроке имени без учета регистра (для латиницы)
+     * Для запросов короче 3 байт триграмм нет - используется просмотр всех имен
+     */
+    public List<Match> searchContains(String substring, int limit) {
+        byte[] query = fold(substring);
+        return search(query, query, false, limit);
+    }
+
+    private List<Match> search(byte[] grams, byte[] query, boolean prefix, int limit) {
+        List<Match> result = new ArrayList<>(Math.min(limit, 64));
+        if (limit <= 0) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            trigrams.search(grams, query, prefix, limit, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Данные индекса: документы, id -> ordinal и списки триграмм
+     * Не потокобезопасен - доступ под lock внешнего класса,
+     * либо до публикации (новый индекс при пересборке)
+     */
+    private static final class Trigrams {
+
+        // Документы
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private int[] nameOffsets = new int[INITIAL_CAPACITY + 1];
+        private byte[] nameBytes = new byte[INITIAL_CAPACITY * 16];
+        private long[] deleted = new long[INITIAL_CAPACITY / 64];
+        private int size;
+        private int deletedCount;
+
+        // id -> ordinal (открытая адресация, 0 в idKeys - пустая ячейка, id хранится как id + 1)
+        private long[] idKeys = new long[INITIAL_CAPACITY * 2];
+        private int[] idOrdinals = new int[INITIAL_CAPACITY * 2];
+        private int idCount;
+
+        // триграмма -> список ordinal (открытая адресация, -1 в gramKeys - пустая ячейка)
+        private int[] gramKeys = newGramKeys(INITIAL_CAPACITY * 4);
+        private int[][] postings = new int[INITIAL_CAPACITY * 4][];
+        private int[] postingSizes = new int[INITIAL_CAPACITY * 4];
+        private int gramCount;
+
+        void search(byte[] grams, byte[] query, boolean prefix, int limit, List<Match> result) {
+            if (grams.length < 3) {
+                for (int ordinal = 0; ordinal < size && result.size() < limit; ordinal++) {
+                    collect(ordinal, query, prefix, result);
+                }
+                return;
+            }
+
+            // Списки ordinal для всех триграмм запроса, самый короткий - первым
+            int gramTotal = grams.length - 2;
+            int[] slots = new int[gramTotal];
+            for (int i = 0; i < gramTotal; i++) {
+                int slot = findGram(gram(grams, i));
+                if (slot < 0) {
+                    return;
+                }
+                slots[i] = slot;
+            }
+            int shortest = 0;
+            for (int i = 1; i < gramTotal; i++) {
+                if (postingSizes[slots[i]] < postingSizes[slots[shortest]]) {
+                    shortest = i;
+                }
+            }
+
+            int[] candidates = postings[slots[shortest]];
+            int candidateCount = postingSizes[slots[shortest]];
+            for (int c = 0; c < candidateCount && result.size() < limit; c++) {
+                int ordinal = candidates[c];
+                boolean inAll = true;
+                for (int i = 0; i < gramTotal && inAll; i++) {
+                    if (i != shortest) {
+                        inAll = Arrays.binarySearch(postings[slots[i]], 0, postingSizes[slots[i]], ordinal) >= 0;
+                    }
+                }
+                if (inAll) {
+                    // Триграммы совпали, проверяем порядок байт
+                    collect(ordinal, query, prefix, result);
+                }
+            }
+        }
+
+        private void collect(int ordinal, byte[] query, boolean prefix, List<Match> result) {
+            if (isDeleted(ordinal)) {
+                return;
+            }
+            int start = nameOffsets[ordinal];
+            int length = nameOffsets[ordinal + 1] - start;
+            boolean matches = prefix
+                    ? length >= query.length && regionMatches(start, query)
+                    : containsAt(start, length, query);
+            if (matches) {
+                result.add(new Match(ids[ordinal], new String(nameBytes, start, length, StandardCharsets.UTF_8)));
+            }
+        }
+
+        private boolean containsAt(int start, int length, byte[] query) {
+            for (int from = start; from <= start + length - query.length; from++) {
+                if (regionMatches(from, query)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean regionMatches(int from, byte[] query) {
+            for (int i = 0; i < query.length; i++) {
+                if (foldByte(nameBytes[from + i]) != query[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // ---- изменение индекса ----
+
+        /**
+         * Добавление или замена пользователя
+         */
+        void put(long id, String username) {
+            removeInternal(id);
+            addInternal(id, username);
+        }
+
+        void remove(long id) {
+            removeInternal(id);
+        }
+
+        int liveCount() {
+            return size - deletedCount;
+        }
+
+        boolean needsCompaction() {
+            return deletedCount > INITIAL_CAPACITY && deletedCount > size / 4;
+        }
+
+        private void addInternal(long id, String username) {
+            byte[] name = username.getBytes(StandardCharsets.UTF_8);
+            int ordinal = size;
+
+            ids = ensureLongs(ids, ordinal + 1);
+            nameOffsets = ensureInts(nameOffsets, ordinal + 2);
+            int start = nameOffsets[ordinal];
+            if (start + name.length > nameBytes.length) {
+                nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2, start + name.length));
+            }
+            System.arraycopy(name, 0, nameBytes, start, name.length);
+            nameOffsets[ordinal + 1] = start + name.length;
+            ids[ordinal] = id;
+            if ((ordinal >> 6) >= deleted.length) {
+                deleted = Arrays.copyOf(deleted, deleted.length * 2);
+            }
+            size++;
+
+            putId(id, ordinal);
+
+            // Триграммы имени с маркерами начала и конца
+            byte[] padded = new byte[name.length + 3];
+            padded[0] = START;
+            padded[1] = START;
+            for (int i = 0; i < name.length; i++) {
+                padded[i + 2] = foldByte(name[i]);
+            }
+            padded[padded.length - 1] = END;
+            for (int i = 0; i + 2 < padded.length; i++) {
+                appendPosting(gram(padded, i), ordinal);
+            }
+        }
+
+        private void removeInternal(long id) {
+            int ordinal = removeId(id);
+            if (ordinal >= 0 && !isDeleted(ordinal)) {
+                deleted[ordinal >> 6] |= 1L << ordinal;
+                deletedCount++;
+            }
+        }
+
+        /**
+         * Новый индекс без удаленных записей
+         */
+        Trigrams compacted() {
+            Trigrams compacted = new Trigrams();
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (!isDeleted(ordinal)) {
+                    int start = nameOffsets[ordinal];
+                    compacted.addInternal(ids[ordinal],
+                            new String(nameBytes, start, nameOffsets[ordinal + 1] - start, StandardCharsets.UTF_8));
+                }
+            }
+            return compacted;
+        }
+
+        private boolean isDeleted(int ordinal) {
+            return (deleted[ordinal >> 6] & (1L << ordinal)) != 0;
+        }
+
+        private int findGram(int gram) {
+            int mask = gramKeys.length - 1;
+            for (int slot = mix(gram) & mask; ; slot = (slot + 1) & mask) {
+                if (gramKeys[slot] == gram) {
+                    return slot;
+                }
+                if (gramKeys[slot] == -1) {
+                    return -1;
+                }
+            }
+        }
+
+        private void appendPosting(int gram, int ordinal) {
+            if ((gramCount + 1) * 2 > gramKeys.length) {
+                rehashGrams();
+            }
+            int mask = gramKeys.length - 1;
+            int slot = mix(gram) & mask;
+            while (gramKeys[slot] != -1 && gramKeys[slot] != gram) {
+                slot = (slot + 1) & mask;
+            }
+            if (gramKeys[slot] == -1) {
+                gramKeys[slot] = gram;
+                postings[slot] = new int[4];
+                gramCount++;
+            }
+            int count = postingSizes[slot];
+            // Одна триграмма может встретиться в имени несколько раз
+            if (count > 0 && postings[slot][count - 1] == ordinal) {
+                return;
+            }
+            if (count == postings[slot].length) {
+                postings[slot] = Arrays.copyOf(postings[slot], count + (count >> 1) + 1);
+            }
+            postings[slot][count] = ordinal;
+            postingSizes[slot] = count + 1;
+        }
+
+        private void rehashGrams() {
+            int[] oldKeys = gramKeys;
+            int[][] oldPostings = postings;
+            int[] oldSizes = postingSizes;
+
+            gramKeys = newGramKeys(oldKeys.length * 2);
+            postings = new int[oldKeys.length * 2][];
+            postingSizes = new int[oldKeys.length * 2];
+            int mask = gramKeys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (gramKeys[slot] != -1) {
+                        slot = (slot + 1) & mask;
+                    }
+                    gramKeys[slot] = oldKeys[i];
+                    postings[slot] = oldPostings[i];
+                    postingSizes[slot] = oldSizes[i];
+                }
+            }
+        }
+
+        private void putId(long id, int ordinal) {
+            if ((idCount + 1) * 2 > idKeys.length) {
+                rehashIds();
+            }
+            insertId(idKeys, idOrdinals, id + 1, ordinal);
+            idCount++;
+        }
+
+        private int removeId(long id) {
+            long key = id + 1;
+            int mask = idKeys.length - 1;
+            for (int slot = mix(Long.hashCode(key)) & mask; idKeys[slot] != 0; slot = (slot + 1) & mask) {
+                if (idKeys[slot] == key) {
+                    int ordinal = idOrdinals[slot];
+                    idKeys[slot] = 0;
+                    idCount--;
+                    // Перекладываем следующие элементы цепочки, чтобы поиск не оборвался на пустой ячейке
+                    for (int next = (slot + 1) & mask; idKeys[next] != 0; next = (next + 1) & mask) {
+                        long movedKey = idKeys[next];
+                        int movedValue = idOrdinals[next];
+                        idKeys[next] = 0;
+                        insertId(idKeys, idOrdinals, movedKey, movedValue);
+                    }
+                    return ordinal;
+                }
+            }
+            return -1;
+        }
+
+        private void rehashIds() {
+            long[] oldKeys = idKeys;
+            int[] oldValues = idOrdinals;
+            idKeys = new long[oldKeys.length * 2];
+            idOrdinals = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    insertId(idKeys, idOrdinals, oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+
+    // ---- триграммы ----
+
+    private static int gram(byte[] bytes, int i) {
+        return ((bytes[i] & 0xFF) << 16) | ((bytes[i + 1] & 0xFF) << 8) | (bytes[i + 2] & 0xFF);
+    }
+
+    private static byte foldByte(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static byte[] fold(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = foldByte(bytes[i]);
+        }
+        return bytes;
+    }
+
+    private static int[] newGramKeys(int capacity) {
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, -1);
+        return keys;
+    }
+
+    // ---- id -> ordinal ----
+
+    private static void insertId(long[] keys, int[] values, long key, int value) {
+        int mask = keys.length - 1;
+        int slot = mix(Long.hashCode(key)) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long[] ensureLongs(long[] array, int required) {
+        return required <= array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, required));
+    }
+
+    private static int[] ensureInts(int[] array, int required) {
+        return required <= array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, required));
+    }
+}
@@ -0,0 +1,25 @@
+-- Исходная схема (раньше создавалась Hibernate через ddl-auto)
+-- Совпадает с существующими БД, для которых dev профиль делает baseline на версии 1,
+-- поэтому новые таблицы и колонки добавляются только следующими миграциями
+-- Синтаксис общий для H2 2.x и PostgreSQL
+
+CREATE TABLE roles (
+    id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    enabled  BOOLEAN NOT NULL
+);
+
+-- Первичный ключ (user_id, role_id) - он же индекс для "роли пользователя"
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    CONSTRAINT pk_user_roles PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
@@ -0,0 +1,12 @@
+-- Индексы для входа и связей ролей
+
+-- Вход (findByUsername) и проверка при регистрации: WHERE username = ?
+-- Уникальность имени задается этим индексом, а не безымянным constraint от Hibernate
+CREATE UNIQUE INDEX ux_users_username ON users (username);
+
+-- findByName при старте и регистрации
+CREATE UNIQUE INDEX ux_roles_name ON roles (name);
+
+-- Обратное направление связи: пользователи роли, проверка FK при удалении роли.
+-- Направление "роли пользователя" (EAGER загрузка при входе) обслуживает pk_user_roles
+CREATE INDEX ix_user_roles_role_user ON user_roles (role_id, user_id);
@@ -0,0 +1,40 @@
+-- Колонки и таблицы, добавленные после исходной схемы
+-- (номер 4 - V3 занят миграцией db/migration/postgresql)
+
+-- Отложенная запись входов (LoginActivityTracker)
+ALTER TABLE users ADD COLUMN last_login_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE users ADD COLUMN login_count BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE scheduler_locks (
+    name         VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    locked_by    VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE reminder_runs (
+    run_key      VARCHAR(128) PRIMARY KEY,
+    reminder     VARCHAR(255) NOT NULL,
+    last_user_id BIGINT NOT NULL,
+    status       VARCHAR(16) NOT NULL,
+    started_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    finished_at  TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE security_audit (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type     VARCHAR(32) NOT NULL,
+    username       VARCHAR(255),
+    remote_address VARCHAR(64),
+    detail         VARCHAR(1024),
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE account_status_events (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL,
+    disabled   BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- Выборки журнала аудита по времени
+CREATE INDEX idx_security_audit_created_at ON security_audit (created_at);
@@ -0,0 +1,18 @@
+-- Отзыв токенов по имени пользователя (DisabledPrincipalRegistry)
+-- Токены, выданные не позже revoked_at, не принимаются. Строка нужна, пока
+-- не истек последний такой токен (expires_at = revoked_at + jwt.expiration),
+-- затем удаляется - таблица не растет без ограничения
+CREATE TABLE revoked_principals (
+    username   VARCHAR(255) PRIMARY KEY,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- Снимок при старте и удаление истекших записей
+CREATE INDEX ix_revoked_principals_expires_at ON revoked_principals (expires_at);
+
+-- Момент отзыва в событии (NULL - включение без отзыва)
+ALTER TABLE account_status_events ADD COLUMN revoked_at TIMESTAMP(6) WITH TIME ZONE;
+
+-- Опрос событий по времени с перекрытием (JdbcAccountStatusFeed.poll)
+CREATE INDEX ix_account_status_events_created_at ON account_status_events (created_at);
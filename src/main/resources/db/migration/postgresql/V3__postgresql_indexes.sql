@@ -0,0 +1,9 @@
+-- Индексы, которые есть только в PostgreSQL
+
+-- Поиск по префиксу имени (UserSearchService: username LIKE 'abc%').
+-- При локали БД, отличной от C, обычный btree для LIKE не используется
+CREATE INDEX ix_users_username_pattern ON users (username varchar_pattern_ops);
+
+-- Снимок отключенных пользователей (DisabledPrincipalRegistry):
+-- частичный индекс содержит только отключенные строки и почти ничего не весит
+CREATE INDEX ix_users_disabled ON users (username) WHERE enabled = FALSE;
@@ -19,15 +19,8 @@ async function deleteByRow(id) {
             tr.remove();
         }
         
-        // Обновляем таблицу после удаления, чтобы показать актуальные данные
-        let input = document.querySelector('#globalFilter');
-        if (input && input.value.trim() !== '') {
-            // Если был активен поиск, обновляем результаты поиска
-            await filterByName();
-        } else {
-            // Иначе просто обновляем всю таблицу
-            await loadAllPeople();
-        }
+        // Перезапрашиваем только текущую страницу (сервер сам применит поиск и сортировку)
+        await loadPage();
         
         let text = await response.text();
         console.log("Data deleted successfully:", text);
@@ -35,97 +28,107 @@ async function deleteByRow(id) {
         console.error("Failed to delete");
     }
 }
-let sortMulti = 1;
+const PAGE_SIZE = 50;
 
+// Сортировка выполняется на сервере: поле -> 'asc' | 'desc'
 let sortStates = {};
+let sortOrder = [];
 
-function sortTable(index) {
-    let body = document.getElementsByTagName('tbody')[0];
-    let rows = Array.from(body.getElementsByTagName('tr'));
-    let headers = document.querySelectorAll('th');
-
-    if (sortStates[index] === undefined)  sortStates[index] = 'asc'
+// Курсоры keyset пагинации: cursors[i] - курсор для загрузки страницы i
+let cursors = [null];
+let pageIndex = 0;
 
-    sortMulti = sortStates[index] === 'asc' ? 1: -1;
+const SORT_FIELDS = ['id', 'username', 'enabled'];
 
-    let sortedRows = rows.sort((rowA,rowB) => {
-        let cellA = rowA.cells[index].innerText.toLowerCase();
-        let cellB = rowB.cells[index].innerText.toLowerCase();
-
-        if (!isNaN(cellA) && !isNaN(cellB))
-            return sortMulti * (Number(cellA) - Number(cellB));
-
-        return sortMulti * (cellA.localeCompare(cellB));
-
-    });
+function sortTable(index) {
+    let field = SORT_FIELDS[index];
+    if (!field) {
+        return;
+    }
+    let headers = document.querySelectorAll('th');
 
+    sortStates[field] = sortStates[field] === 'asc' ? 'desc' : 'asc';
+    // Последняя выбранная колонка - главная, предыдущие - дополнительные
+    sortOrder = [field, ...sortOrder.filter(f => f !== field)];
 
     for (const header of headers) {
         header.innerText = header.innerText.split(' ')[0];
     }
+    headers[index].innerText += sortStates[field] === 'asc' ? ' ⬆' : ' ⬇';
 
-    sortedRows.forEach(row=>{
-        body.appendChild(row);
-    });
-
-    if (sortStates[index] === 'asc'){
-        sortStates[index] = 'desc'
-        headers[index].innerText += ' ⬇'
-    }else{
-        sortStates[index] = 'asc'
-        headers[index].innerText += ' ⬆'
-    }
+    resetPaging();
+    loadPage();
 }
 
 
 let searchTimeout;
 
 async function filterByName() {
-    let input = document.querySelector('#globalFilter');
-    let value = input.value.trim();
-    let selectedFields = document.querySelector('input[name="searchField"]:checked').value;
-
     // Очищаем предыдущий таймаут
     clearTimeout(searchTimeout);
 
-    // Если поле поиска пустое, показываем все данные
-    if (value === '') {
-        await loadAllPeople();
-        return;
-    }
-
     // Дебаунс - ждем 300мс после последнего ввода перед поиском
     searchTimeout = setTimeout(async () => {
-        try {
-            const response = await fetch(`/home/people?query=${encodeURIComponent(value)}&field=${encodeURIComponent(selectedFields)}&format=json`, {
-                headers: {
-                    'Accept': 'application/json'
-                }
-            });
-            
-            if (response.ok) {
-                const people = await response.json();
-                updateTable(people);
-            } else {
-                console.error('Search failed:', response.statusText);
-            }
-        } catch (error) {
-            console.error('Error during search:', error);
-        }
+        resetPaging();
+        await loadPage();
     }, 300);
 }
 
 async function loadAllPeople() {
+    resetPaging();
+    await loadPage();
+}
+
+async function nextPage() {
+    if (cursors[pageIndex + 1]) {
+        pageIndex++;
+        await loadPage();
+    }
+}
+
+async function prevPage() {
+    if (pageIndex > 0) {
+        pageIndex--;
+        await loadPage();
+    }
+}
+
+function resetPaging() {
+    cursors = [null];
+    pageIndex = 0;
+}
+
+function buildPeopleUrl() {
+    let params = new URLSearchParams({format: 'json', limit: PAGE_SIZE});
+
+    let input = document.querySelector('#globalFilter');
+    let value = input ? input.value.trim() : '';
+    if (value !== '') {
+        let selected = document.querySelector('input[name="searchField"]:checked');
+        params.set('query', value);
+        params.set('field', selected ? selected.value : 'username');
+    }
+    if (sortOrder.length > 0) {
+        params.set('sort', sortOrder.map(f => sortStates[f] === 'desc' ? '-' + f : f).join(','));
+    }
+    if (cursors[pageIndex]) {
+        params.set('cursor', cursors[pageIndex]);
+    }
+    return `/home/people?${params}`;
+}
+
+async function loadPage() {
     try {
-        const response = await fetch('/home/people?format=json', {
+        const response = await fetch(buildPeopleUrl(), {
             headers: {
                 'Accept': 'application/json'
             }
         });
         
         if (response.ok) {
-            const people = await response.json();
-            updateTable(people);
+            const page = await response.json();
+            cursors[pageIndex + 1] = page.next;
+            updateTable(page.items);
         } else {
             console.error('Failed to load people:', response.statusText);
         }
@@ -152,13 +155,10 @@ function updateTable(people) {
         
         row.innerHTML = `
             <td>${person.id}</td>
-            <td>${escapeHtml(person.name || '')}</td>
-            <td>${escapeHtml(person.surname || '')}</td>
-            <td>${escapeHtml(person.email || '')}</td>
-            <td>${person.age || ''}</td>
+            <td>${escapeHtml(person.username || '')}</td>
+            <td>${person.enabled ? 'yes' : 'no'}</td>
             <td>
                 <a class="dlt btn" onclick="deleteByRow(${person.id})">Delete</a>
-                <a class="dlt btn" href="/home/edit/${person.id}">Edit</a>
             </td>
         `;
         
@@ -169,7 +169,7 @@ function updateTable(people) {
     if (people.length === 0) {
         let row = document.createElement('tr');
         let cell = document.createElement('td');
-        cell.setAttribute('colspan', '6');
+        cell.setAttribute('colspan', '4');
         cell.style.textAlign = 'center';
         cell.textContent = 'No results found';
         row.appendChild(cell);
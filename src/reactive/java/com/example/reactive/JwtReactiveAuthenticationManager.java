@@ -0,0 +1,42 @@
+package com.example.reactive;
+
+import com.example.demo.security.DisabledPrincipalRegistry;
+import com.example.demo.security.JwtTokenProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивная проверка JWT тем же JwtTokenProvider, что и в JwtAuthenticationFilter
+ * 
+ * Подпись HS512 и разбор claims - чистые вычисления без ввода-вывода,
+ * поэтому выполняются прямо в потоке event loop
+ */
+public class JwtReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final JwtTokenProvider tokenProvider;
+    private final DisabledPrincipalRegistry disabledPrincipals;
+
+    public JwtReactiveAuthenticationManager(JwtTokenProvider tokenProvider,
+                                            DisabledPrincipalRegistry disabledPrincipals) {
+        this.tokenProvider = tokenProvider;
+        this.disabledPrincipals = disabledPrincipals;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+            return Mono.empty();
+        }
+        return Mono.fromSupplier(() -> {
+            Jwt jwt = tokenProvider.decodeValidToken(bearer.getToken());
+            if (jwt == null || disabledPrincipals.isRevoked(jwt)) {
+                throw new BadCredentialsException("Невалидный токен");
+            }
+            return tokenProvider.getAuthentication(jwt);
+        });
+    }
+}
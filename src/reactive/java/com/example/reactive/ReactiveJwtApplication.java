@@ -0,0 +1,58 @@
+package com.example.reactive;
+
+import com.example.demo.config.AccountStatusFeedConfig;
+import com.example.demo.config.DataInitializer;
+import com.example.demo.config.JwtConfig;
+import com.example.demo.config.ReplicaLagGuard;
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.CompactTokenCodec;
+import com.example.demo.security.DisabledPrincipalRegistry;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.security.RoleMaskRegistry;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.TieredUserDetailsService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Реактивный (WebFlux + Netty) вариант JWT API
+ * 
+ * Исходники в src/reactive/java, компилируются вместе с основным кодом:
+ * mvn spring-boot:run -Dspring-boot.run.main-class=com.example.reactive.ReactiveJwtApplication
+ * 
+ * Эндпоинты те же, что у сервлетного приложения:
+ * POST /api/auth/login, POST /api/auth/validate, GET /api/user/info, GET /api/admin/stats
+ * 
+ * Пакет com.example.reactive лежит вне com.example.demo, чтобы DemoApplication
+ * не подхватил реактивную конфигурацию сканированием. Из основного приложения
+ * импортируются только JWT (JwtConfig, JwtTokenProvider), загрузка пользователей
+ * и JPA репозитории - токены полностью совместимы между двумя вариантами.
+ */
+@SpringBootApplication
+@EntityScan(basePackageClasses = User.class)
+@EnableJpaRepositories(basePackageClasses = UserRepository.class)
+@Import({
+        JwtConfig.class,
+        JwtTokenProvider.class,
+        CompactTokenCodec.class,
+        RoleMaskRegistry.class,
+        DisabledPrincipalRegistry.class,
+        AccountStatusFeedConfig.class,
+        TieredUserDetailsService.class,
+        CustomUserDetailsService.class,
+        ReplicaLagGuard.class,
+        DataInitializer.class
+})
+public class ReactiveJwtApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveJwtApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.reactive;
+
+import com.example.demo.controller.ApiController;
+import com.example.demo.dto.JwtResponse;
+import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.UserInfoResponse;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.security.TokenFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+/**
+ * JWT API на WebFlux: те же пути и ответы, что AuthJwtController и ApiController
+ */
+@RestController
+public class ReactiveJwtController {
+
+    @Autowired
+    private ReactiveAuthenticationManager passwordAuthenticationManager;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    /**
+     * Вход по паролю и выдача токена
+     * 
+     * Проверка BCrypt завершается на blockingScheduler, там же
+     * подписывается токен - event loop занят только разбором JSON
+     */
+    @PostMapping("/api/auth/login")
+    public Mono<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        return passwordAuthenticationManager
+                .authenticate(new UsernamePasswordAuthenticationToken(
+                        loginRequest.getUsername(), loginRequest.getPassword()))
+                .<ResponseEntity<?>>map(authentication -> {
+                    String jwt = tokenProvider.generateToken(authentication,
+                            TokenFormat.fromString(loginRequest.getTokenFormat()));
+                    UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+                    String authorities = authentication.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .collect(Collectors.joining(","));
+                    return ResponseEntity.ok(new JwtResponse(jwt, userDetails.getUsername(), authorities));
+                })
+                .onErrorResume(AuthenticationException.class, e -> Mono.just(
+                        ResponseEntity.badRequest().body("Неверное имя пользователя или пароль")));
+    }
+
+    /**
+     * Проверка токена (путь открыт, как в сервлетном варианте)
+     */
+    @PostMapping("/api/auth/validate")
+    public Mono<ResponseEntity<String>> validate(Authentication authentication) {
+        if (authentication != null && authentication.isAuthenticated()) {
+            return Mono.just(ResponseEntity.ok("Токен валиден. Пользователь: " + authentication.getName()));
+        }
+        return Mono.just(ResponseEntity.badRequest().body("Токен невалиден или отсутствует"));
+    }
+
+    @GetMapping("/api/user/info")
+    public Mono<UserInfoResponse> userInfo(Authentication authentication) {
+        return Mono.just(new UserInfoResponse(
+                authentication.getName(),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+                authentication.isAuthenticated()));
+    }
+
+    /**
+     * Тело сериализовано заранее, как в ApiController
+     */
+    @GetMapping("/api/admin/stats")
+    public Mono<ResponseEntity<byte[]>> adminStats() {
+        return Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiController.ADMIN_STATS_BODY));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.reactive;
+
+import com.example.demo.security.DisabledPrincipalRegistry;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.service.TieredUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Безопасность реактивного варианта
+ * 
+ * 1. JWT из заголовка Authorization проверяется JwtReactiveAuthenticationManager
+ *    (только HMAC и разбор claims - в потоке event loop)
+ * 2. Вход по паролю: UserDetailsRepositoryReactiveAuthenticationManager,
+ *    загрузка пользователя (JPA) и BCrypt выполняются на отдельном
+ *    ограниченном планировщике blockingScheduler, event loop не блокируется
+ * 3. Без сессий и CSRF - API полностью stateless
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    /**
+     * Netty явно: при наличии Tomcat в classpath (сервлетный вариант)
+     * Spring Boot иначе выбрал бы его
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(
+            @Value("${reactive.server.port:8090}") int port) {
+        return new NettyReactiveWebServerFactory(port);
+    }
+
+    /**
+     * Планировщик для блокирующих вызовов: не больше threads потоков
+     * и queue ожидающих задач, дальше - отказ (ошибка), а не рост очереди
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(
+            @Value("${reactive.blocking.threads:16}") int threads,
+            @Value("${reactive.blocking.queue:1000}") int queue) {
+        return Schedulers.newBoundedElastic(threads, queue, "auth-blocking");
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder(12);
+    }
+
+    @Bean
+    public ReactiveUserDetailsService reactiveUserDetailsService(
+            TieredUserDetailsService userDetailsService, Scheduler blockingScheduler) {
+        return username -> Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username))
+                .subscribeOn(blockingScheduler)
+                // Неизвестный пользователь - такой же ответ, как неверный пароль
+                .onErrorResume(UsernameNotFoundException.class, e -> Mono.empty());
+    }
+
+    /**
+     * Менеджер входа по паролю (ReactiveJwtController)
+     */
+    @Bean
+    public ReactiveAuthenticationManager passwordAuthenticationManager(
+            ReactiveUserDetailsService reactiveUserDetailsService,
+            PasswordEncoder passwordEncoder,
+            Scheduler blockingScheduler) {
+        UserDetailsRepositoryReactiveAuthenticationManager manager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(reactiveUserDetailsService);
+        manager.setPasswordEncoder(passwordEncoder);
+        manager.setScheduler(blockingScheduler);
+        return manager;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(
+            ServerHttpSecurity http,
+            JwtTokenProvider tokenProvider,
+            DisabledPrincipalRegistry disabledPrincipals) {
+        AuthenticationWebFilter jwtFilter = new AuthenticationWebFilter(
+                new JwtReactiveAuthenticationManager(tokenProvider, disabledPrincipals));
+        jwtFilter.setServerAuthenticationConverter(exchange -> {
+            String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (header == null || !header.startsWith("Bearer ")) {
+                return Mono.empty();
+            }
+            return Mono.just(new BearerTokenAuthenticationToken(header.substring(7)));
+        });
+        // Как JwtAuthenticationFilter: невалидный токен - запрос идет дальше анонимным
+        jwtFilter.setAuthenticationFailureHandler(
+                (webFilterExchange, exception) -> webFilterExchange.getChain().filter(webFilterExchange.getExchange()));
+
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/api/auth/**").permitAll()
+                        .pathMatchers("/api/user/**").hasAnyRole("USER", "ADMIN")
+                        .pathMatchers("/api/admin/**").hasRole("ADMIN")
+                        .anyExchange().authenticated())
+                .build();
+    }
+}
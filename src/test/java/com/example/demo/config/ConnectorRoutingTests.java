@@ -0,0 +1,97 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация по портам: классы трафика из connector.N.traffic
+ * и пути порта admin из connector.admin-paths
+ */
+class ConnectorRoutingTests {
+
+    private final ConnectorRegistry registry = new ConnectorRegistry();
+    private ConnectorTrafficFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("connector.8181.traffic", "api")
+                .withProperty("connector.8282.traffic", "admin")
+                .withProperty("connector.8383.traffic", "ui");
+
+        MultiPortConfig config = new MultiPortConfig();
+        ReflectionTestUtils.setField(config, "ports", List.of(8080, 8181, 8282, 8383));
+        ReflectionTestUtils.setField(config, "mainPort", 8080);
+        ReflectionTestUtils.setField(config, "adminPaths",
+                List.of("/admin/**", "/api/admin/**", "/home/**", "/login", "/logout", "/user/dashboard", "/css/**"));
+        ReflectionTestUtils.setField(config, "environment", environment);
+        ReflectionTestUtils.setField(config, "connectorRegistry", registry);
+
+        config.additionalConnectorsCustomizer().customize(new TomcatServletWebServerFactory());
+        filter = config.connectorTrafficFilter().getFilter();
+    }
+
+    @Test
+    void adminPortServesConfiguredAdminPaths() throws Exception {
+        assertThat(status(8282, "/admin/panel")).isEqualTo(200);
+        assertThat(status(8282, "/api/admin/stats")).isEqualTo(200);
+        assertThat(status(8282, "/home/people")).isEqualTo(200);
+        assertThat(status(8282, "/home/api/delete/5")).isEqualTo(200);
+        assertThat(status(8282, "/login")).isEqualTo(200);
+        assertThat(status(8282, "/css/style.css")).isEqualTo(200);
+
+        assertThat(status(8282, "/user/profile")).isEqualTo(404);
+        assertThat(status(8282, "/api/user/info")).isEqualTo(404);
+        // Шаблон не задан в connector.admin-paths - порт не отдает /js/**
+        assertThat(status(8282, "/js/script.js")).isEqualTo(404);
+    }
+
+    @Test
+    void apiAndUiPortsAreSeparated() throws Exception {
+        assertThat(status(8181, "/api/user/info")).isEqualTo(200);
+        assertThat(status(8181, "/home/people")).isEqualTo(404);
+
+        assertThat(status(8383, "/user/dashboard")).isEqualTo(200);
+        assertThat(status(8383, "/api/user/info")).isEqualTo(404);
+        assertThat(status(8383, "/admin/panel")).isEqualTo(404);
+    }
+
+    @Test
+    void mainAndUnknownPortsAcceptEverything() throws Exception {
+        assertThat(status(8080, "/home/people")).isEqualTo(200);
+        assertThat(status(8080, "/api/user/info")).isEqualTo(200);
+        assertThat(status(9999, "/admin/panel")).isEqualTo(200);
+    }
+
+    @Test
+    void rejectedRequestsAreCounted() throws Exception {
+        status(8282, "/user/profile");
+        status(8282, "/admin/panel");
+
+        assertThat(registry.snapshot())
+                .filteredOn(item -> item.get("port").equals(8282))
+                .singleElement()
+                .satisfies(item -> {
+                    assertThat(item.get("requests")).isEqualTo(1L);
+                    assertThat(item.get("rejected")).isEqualTo(1L);
+                });
+    }
+
+    private int status(int port, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setLocalPort(port);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.config;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * FilterChainProfiler: в гистограмму фильтра попадает только его собственное время,
+ * API и остальные запросы считаются отдельно
+ */
+class FilterChainProfilerTests {
+
+    @Test
+    void recordsSelfTimePerFilterAndTraffic() throws Exception {
+        Filter slow = (request, response, chain) -> {
+            sleep(3);
+            chain.doFilter(request, response);
+        };
+        Filter fast = (request, response, chain) -> chain.doFilter(request, response);
+        List<Filter> filters = List.of(slow, fast);
+        FilterChain application = (request, response) -> sleep(30);
+
+        FilterChainProfiler profiler = new FilterChainProfiler();
+        for (int i = 0; i < 5; i++) {
+            profiler.decorate(application, filters)
+                    .doFilter(new MockHttpServletRequest("GET", "/api/user/info"), new MockHttpServletResponse());
+        }
+        profiler.decorate(application, filters)
+                .doFilter(new MockHttpServletRequest("GET", "/user/dashboard"), new MockHttpServletResponse());
+
+        List<Map<String, Object>> snapshot = profiler.snapshot();
+        assertThat(snapshot).hasSize(4);
+
+        Map<String, Object> slowApi = snapshot.get(0);
+        assertThat(slowApi.get("traffic")).isEqualTo("api");
+        assertThat(slowApi.get("order")).isEqualTo(0);
+        assertThat(slowApi.get("count")).isEqualTo(5L);
+        // ~3 мс фильтра без 30 мс остальной цепочки
+        assertThat((Long) slowApi.get("p50Micros")).isBetween(2_047L, 16_383L);
+
+        Map<String, Object> fastApi = snapshot.get(1);
+        assertThat((Long) fastApi.get("p50Micros")).isLessThan(2_047L);
+
+        assertThat(snapshot.get(2).get("traffic")).isEqualTo("web");
+        assertThat(snapshot.get(2).get("count")).isEqualTo(1L);
+    }
+
+    @Test
+    void postProcessorInstallsProfilerOnFilterChainProxy() {
+        FilterChainProfiler profiler = new FilterChainProfiler();
+        FilterChainProxy proxy = new FilterChainProxy(List.of());
+        Object other = new Object();
+
+        BeanPostProcessor postProcessor = FilterProfilerConfig.filterChainProfilerPostProcessor(profiler);
+
+        assertThat(postProcessor.postProcessAfterInitialization(proxy, "springSecurityFilterChain")).isSameAs(proxy);
+        assertThat(ReflectionTestUtils.getField(proxy, "filterChainDecorator")).isSameAs(profiler);
+        assertThat(postProcessor.postProcessAfterInitialization(other, "other")).isSameAs(other);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
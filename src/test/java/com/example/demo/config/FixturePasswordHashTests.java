@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Заранее посчитанные хеши тестовых пользователей соответствуют их паролям
+ */
+class FixturePasswordHashTests {
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+
+    @Test
+    void precomputedHashesMatchFixturePasswords() {
+        assertThat(encoder.matches("admin123", DataInitializer.ADMIN_PASSWORD_HASH)).isTrue();
+        assertThat(encoder.matches("user123", DataInitializer.USER_PASSWORD_HASH)).isTrue();
+        assertThat(encoder.upgradeEncoding(DataInitializer.ADMIN_PASSWORD_HASH)).isFalse();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация read-only транзакций на реплику на двух независимых H2
+ * (в каждой своя строка, по ней видно, куда ушел запрос)
+ */
+class ReplicaRoutingTests {
+
+    private ReplicaLagGuard guard;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource primary = h2("primary");
+        SimpleDriverDataSource replica = h2("replica");
+
+        guard = new ReplicaLagGuard("jdbc:h2:mem:replica", Duration.ofSeconds(5));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(replica, primary, guard, null, 2.0));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertThat(sourceIn(readOnly)).isEqualTo("replica");
+        assertThat(sourceIn(readWrite)).isEqualTo("primary");
+        // Без транзакции (auto-commit) - основная БД
+        assertThat(source()).isEqualTo("primary");
+    }
+
+    @Test
+    void recentWriteAndUnhealthyReplicaFallBackToPrimary() {
+        guard.markWritten("alice");
+        assertThat(guard.recentlyWritten("alice")).isTrue();
+        assertThat(guard.recentlyWritten("bob")).isFalse();
+        String recentWriteSource = readOnly.execute(status -> guard.onPrimary(this::source));
+        assertThat(recentWriteSource).isEqualTo("primary");
+
+        guard.setReplicaHealthy(false);
+        assertThat(sourceIn(readOnly)).isEqualTo("primary");
+        guard.setReplicaHealthy(true);
+        assertThat(sourceIn(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void writeMarkerCookieRoutesClientToPrimaryOnAnotherNode() {
+        MockHttpServletRequest registration = new MockHttpServletRequest("POST", "/register");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(registration, response));
+        try {
+            guard.markWritten("alice");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        Cookie marker = response.getCookie(ReplicaLagGuard.MARKER_COOKIE);
+        assertThat(marker).isNotNull();
+        assertThat(marker.isHttpOnly()).isTrue();
+        assertThat(marker.getMaxAge()).isEqualTo(5);
+
+        // Вход того же клиента попадает на другой узел: своей карты записей там нет
+        ReplicaLagGuard otherNode = new ReplicaLagGuard("jdbc:h2:mem:replica", Duration.ofSeconds(5));
+        assertThat(recentlyWrittenOn(otherNode, "alice", marker)).isTrue();
+        assertThat(recentlyWrittenOn(otherNode, "alice", null)).isFalse();
+
+        // Истекший маркер и маркер дальше одного окна в будущем не действуют
+        Cookie expired = new Cookie(ReplicaLagGuard.MARKER_COOKIE, Long.toString(System.currentTimeMillis() - 1));
+        Cookie forged = new Cookie(ReplicaLagGuard.MARKER_COOKIE, Long.toString(System.currentTimeMillis() + 3_600_000));
+        assertThat(recentlyWrittenOn(otherNode, "alice", expired)).isFalse();
+        assertThat(recentlyWrittenOn(otherNode, "alice", forged)).isFalse();
+    }
+
+    private static boolean recentlyWrittenOn(ReplicaLagGuard node, String key, Cookie cookie) {
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+        if (cookie != null) {
+            login.setCookies(cookie);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(login, new MockHttpServletResponse()));
+        try {
+            return node.recentlyWritten(key);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * Явный тип результата - assertThat(execute(...)) неоднозначен для компилятора
+     */
+    private String sourceIn(TransactionTemplate transaction) {
+        String source = transaction.execute(status -> source());
+        return source;
+    }
+
+    private String source() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static SimpleDriverDataSource h2(String name) {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:" + name + "-routing;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+        jdbc.execute("DELETE FROM node");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.JwtResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Замер выделенной памяти на запрос: прежние ответы (HashMap, reduce)
+ * против заранее сериализованных тел и joining
+ */
+class ApiResponseAllocationTests {
+
+    private static final int ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    @Test
+    void preSerializedBodiesMatchPreviousJson() throws IOException {
+        Map<String, String> publicApi = new HashMap<>();
+        publicApi.put("message", "Это публичный API эндпоинт");
+        publicApi.put("status", "success");
+        assertThat(objectMapper.readTree(ApiController.PUBLIC_API_BODY))
+                .isEqualTo(objectMapper.valueToTree(publicApi));
+
+        JsonNode stats = objectMapper.readTree(ApiController.ADMIN_STATS_BODY);
+        assertThat(stats.get("totalUsers").asInt()).isEqualTo(100);
+        assertThat(stats.get("activeUsers").asInt()).isEqualTo(75);
+
+        // Поля записи в том же порядке, что были у JavaBean
+        assertThat(objectMapper.writeValueAsString(new JwtResponse("t", "admin", "ROLE_ADMIN")))
+                .isEqualTo("{\"token\":\"t\",\"type\":\"Bearer\",\"username\":\"admin\",\"authorities\":\"ROLE_ADMIN\"}");
+    }
+
+    @Test
+    void publicApiAllocatesLessPerRequest() throws IOException {
+        long before = allocatedPerCall(() -> {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Это публичный API эндпоинт");
+            response.put("status", "success");
+            objectMapper.writeValue(out, response);
+        });
+        long after = allocatedPerCall(() -> out.write(ApiController.PUBLIC_API_BODY));
+
+        // Тело копируется в уже выделенный буфер ответа, без новых объектов
+        assertThat(after).isLessThanOrEqualTo(16);
+        assertThat(before).isGreaterThan(256);
+    }
+
+    @Test
+    void joiningAuthoritiesAllocatesLessThanReduce() throws IOException {
+        List<String> authorities = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            authorities.add("ROLE_SERVICE_" + i);
+        }
+        long before = allocatedPerCall(() -> out.write(authorities.stream()
+                .reduce((a, b) -> a + "," + b)
+                .orElse("")
+                .length()));
+        long after = allocatedPerCall(() -> out.write(authorities.stream()
+                .collect(Collectors.joining(","))
+                .length()));
+
+        // joining: массив элементов и одна итоговая строка; reduce копирует строку на каждом шаге
+        int joinedLength = String.join(",", authorities).length();
+        assertThat(after).isLessThan(2L * joinedLength + 1_024);
+        assertThat(before).isGreaterThan(8L * joinedLength);
+    }
+
+    private interface Call {
+        void run() throws IOException;
+    }
+
+    private long allocatedPerCall(Call call) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            out.reset();
+            call.run();
+        }
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            out.reset();
+            call.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - start) / ITERATIONS;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AccountStatusService;
+import com.example.demo.service.TieredUserDetailsService;
+import com.example.demo.service.UserSearchService;
+import com.example.demo.service.UsernameIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /home/people и /home/api/delete/{id}: ответы 400 на неверный ввод
+ * и обновление индекса и кеша только после коммита удаления
+ */
+class PeopleControllerTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UsernameIndex usernameIndex = mock(UsernameIndex.class);
+    private final TieredUserDetailsService userDetailsService = mock(TieredUserDetailsService.class);
+    private final AccountStatusService accountStatusService = mock(AccountStatusService.class);
+    private final PeopleController controller = new PeopleController();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:people-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (id, username, password, enabled) VALUES (1, 'admin', 'x', TRUE),"
+                + " (2, 'alice', 'x', TRUE), (3, 'bob', 'x', FALSE)");
+
+        UserSearchService searchService = new UserSearchService();
+        ReflectionTestUtils.setField(searchService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(searchService, "objectMapper", new ObjectMapper());
+
+        ReflectionTestUtils.setField(controller, "userSearchService", searchService);
+        ReflectionTestUtils.setField(controller, "userRepository", userRepository);
+        ReflectionTestUtils.setField(controller, "usernameIndex", usernameIndex);
+        ReflectionTestUtils.setField(controller, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(controller, "accountStatusService", accountStatusService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void peopleReturnsPageAndCursor() throws Exception {
+        mockMvc.perform(get("/home/people").param("query", "a").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].username").value("admin"))
+                .andExpect(jsonPath("$.next").isString());
+    }
+
+    @Test
+    void cursorWithWrongTypesIsBadRequest() throws Exception {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("[1, \"x\"]".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/home/people").param("sort", "username").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/home/people").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteOfMissingUserIsNotFound() throws Exception {
+        when(userRepository.findById(42L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(delete("/home/api/delete/42"))
+                .andExpect(status().isNotFound());
+        verify(accountStatusService, never()).deleted("alice");
+    }
+
+    @Test
+    void deleteUpdatesIndexAndCacheOnlyAfterCommit() {
+        User user = new User("alice", "x");
+        user.setId(2L);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+        TransactionSynchronizationManager.initSynchronization();
+
+        ResponseEntity<String> response = controller.delete(2L);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        verify(userRepository).delete(user);
+        verify(accountStatusService).deleted("alice");
+        verify(usernameIndex, never()).remove(2L);
+        verify(userDetailsService, never()).evict("alice");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(usernameIndex).remove(2L);
+        verify(userDetailsService).evict("alice");
+    }
+
+    @Test
+    void rolledBackDeleteKeepsIndexAndCache() {
+        User user = new User("alice", "x");
+        user.setId(2L);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+        TransactionSynchronizationManager.initSynchronization();
+
+        controller.delete(2L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(usernameIndex, never()).remove(2L);
+        verify(userDetailsService, never()).evict("alice");
+    }
+}
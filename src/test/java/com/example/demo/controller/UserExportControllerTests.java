@@ -0,0 +1,149 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.UserExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /admin/users/export: формат CSV и NDJSON, экранирование и потоковая запись
+ */
+class UserExportControllerTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcTemplate jdbcTemplate;
+    private UserExportService exportService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:export-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        exportService = new UserExportService();
+        ReflectionTestUtils.setField(exportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(exportService, "objectMapper", objectMapper);
+
+        AdminController controller = new AdminController();
+        ReflectionTestUtils.setField(controller, "userExportService", exportService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        jdbcTemplate.update("INSERT INTO roles (id, name) VALUES (1, 'ROLE_USER'), (2, 'ROLE_ADMIN')");
+        insertUser(1, "admin", true, 1, 2);
+        insertUser(2, "Иванов, \"Ваня\"", false, 1);
+        insertUser(3, "line\nbreak", true);
+    }
+
+    @Test
+    void csvEscapesSeparatorsQuotesAndLineBreaks() throws Exception {
+        mockMvc.perform(get("/admin/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=users.csv"))
+                .andExpect(content().bytes("""
+                        id,username,enabled,roles
+                        1,admin,true,ROLE_USER;ROLE_ADMIN
+                        2,"Иванов, ""Ваня\""",false,ROLE_USER
+                        3,"line
+                        break",true,
+                        """.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        byte[] body = mockMvc.perform(get("/admin/users/export").param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=users.ndjson"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String[] lines = new String(body, StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1);
+        assertThat(first.get("username").asText()).isEqualTo("admin");
+        assertThat(first.get("enabled").asBoolean()).isTrue();
+        assertThat(first.get("roles")).hasSize(2);
+        assertThat(objectMapper.readTree(lines[1]).get("username").asText()).isEqualTo("Иванов, \"Ваня\"");
+        JsonNode third = objectMapper.readTree(lines[2]);
+        assertThat(third.get("username").asText()).isEqualTo("line\nbreak");
+        assertThat(third.get("roles")).isEmpty();
+    }
+
+    @Test
+    void rowsAreWrittenWhileCursorIsStillOpen() throws IOException {
+        int users = 20_000;
+        jdbcTemplate.update("INSERT INTO users (id, username, password, enabled)"
+                + " SELECT X + 10, 'bulk_' || X, 'x', TRUE FROM SYSTEM_RANGE(1, ?)", users);
+
+        // Сколько строк курсора прочитано к моменту первой записи в ответ
+        AtomicLong rowsRead = new AtomicLong();
+        ReflectionTestUtils.setField(exportService, "jdbcTemplate", new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                super.query(psc, (RowCallbackHandler) rs -> {
+                    rowsRead.incrementAndGet();
+                    rch.processRow(rs);
+                });
+            }
+        });
+        long[] rowsAtFirstWrite = {-1};
+        long[] bytes = {0};
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (rowsAtFirstWrite[0] < 0) {
+                    rowsAtFirstWrite[0] = rowsRead.get();
+                }
+                bytes[0] += len;
+            }
+        };
+
+        exportService.export(UserExportService.Format.CSV, out);
+
+        assertThat(rowsRead.get()).isEqualTo(users + 4);
+        assertThat(rowsAtFirstWrite[0]).isBetween(1L, users / 2L);
+        assertThat(bytes[0]).isGreaterThan(users * 20L);
+    }
+
+    private void insertUser(long id, String username, boolean enabled, long... roleIds) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password, enabled) VALUES (?, ?, 'x', ?)",
+                id, username, enabled);
+        for (long roleId : roleIds) {
+            jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", id, roleId);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Миграции на H2: запрос входа использует уникальный индекс по username
+ * из V2__indexes.sql. Задержка с индексами и без них - LoginQueryBenchmark
+ */
+class LoginQueryIndexTests {
+
+    private static final int USERS = 100;
+
+    /**
+     * Тот же запрос, что Hibernate строит для findByUsername с EAGER ролями
+     */
+    private static final String LOGIN_SQL = """
+            SELECT u.id, u.username, u.password, u.enabled, u.last_login_at, u.login_count, r.id, r.name
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            WHERE u.username = ?""";
+
+    @Test
+    void loginQueryUsesUsernameIndex() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:login-index;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        fill(jdbc);
+
+        String plan = jdbc.queryForObject("EXPLAIN " + LOGIN_SQL.replace("?", "'user_42'"), String.class);
+        assertThat(plan).containsIgnoringCase("UX_USERS_USERNAME");
+
+        List<Map<String, Object>> rows = jdbc.queryForList(LOGIN_SQL, "user_42");
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).get("USERNAME")).isEqualTo("user_42");
+    }
+
+    private static void fill(JdbcTemplate jdbc) {
+        jdbc.update("INSERT INTO roles (name) VALUES ('USER'), ('ADMIN')");
+        Long roleId = jdbc.queryForObject("SELECT id FROM roles WHERE name = 'USER'", Long.class);
+        List<Object[]> users = new ArrayList<>(USERS);
+        List<Object[]> links = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "user_" + id, "$2a$12$hash"});
+            links.add(new Object[]{id, roleId});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, username, password, enabled) VALUES (?, ?, ?, TRUE)", users);
+        jdbc.batchUpdate("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", links);
+    }
+}
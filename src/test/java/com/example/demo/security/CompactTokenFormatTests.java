@@ -0,0 +1,94 @@
+package com.example.demo.security;
+
+import com.example.demo.config.JwtConfig;
+import com.example.demo.entity.Role;
+import com.example.demo.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сравнение стандартного JWS и компактного формата токена:
+ * размер, одинаковые claims, отказ для подделанных и истекших токенов
+ */
+class CompactTokenFormatTests {
+
+    private JwtTokenProvider tokenProvider;
+    private CompactTokenCodec compactTokenCodec;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "jwtSecret",
+                "mySecretKeyForJWTTokenGenerationAndValidationInSpringSecurityDemoApplication2024");
+
+        Role admin = new Role("ADMIN");
+        admin.setId(1L);
+        Role user = new Role("USER");
+        user.setId(2L);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(admin, user));
+
+        RoleMaskRegistry registry = new RoleMaskRegistry();
+        ReflectionTestUtils.setField(registry, "roleRepository", roleRepository);
+        registry.refresh();
+
+        compactTokenCodec = new CompactTokenCodec(jwtConfig.jwtSecretKey());
+        tokenProvider = new JwtTokenProvider(jwtConfig.jwtEncoder(), jwtConfig.jwtDecoder(),
+                registry, compactTokenCodec);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 86_400_000L);
+
+        UserDetails principal = User.withUsername("admin").password("x").roles("ADMIN", "USER").build();
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Test
+    void compactTokenIsShorterAndCarriesSameClaims() {
+        String jws = tokenProvider.generateToken(authentication, TokenFormat.JWS);
+        String compact = tokenProvider.generateToken(authentication, TokenFormat.COMPACT);
+
+        assertThat(compact.length()).isLessThan(jws.length() / 2);
+
+        Jwt fromJws = tokenProvider.decodeValidToken(jws);
+        Jwt fromCompact = tokenProvider.decodeValidToken(compact);
+        assertThat(fromCompact.getSubject()).isEqualTo(fromJws.getSubject());
+        assertThat(tokenProvider.getAuthentication(fromCompact).getAuthorities())
+                .containsExactlyInAnyOrderElementsOf(tokenProvider.getAuthentication(fromJws).getAuthorities());
+    }
+
+    @Test
+    void tamperedCompactTokenIsRejected() {
+        String compact = tokenProvider.generateToken(authentication, TokenFormat.COMPACT);
+        int dot = compact.lastIndexOf('.');
+        char flipped = compact.charAt(dot - 1) == 'A' ? 'B' : 'A';
+        String tampered = compact.substring(0, dot - 1) + flipped + compact.substring(dot);
+
+        assertThat(tokenProvider.decodeValidToken(tampered)).isNull();
+        assertThat(tokenProvider.validateToken(tampered)).isFalse();
+    }
+
+    @Test
+    void expiredCompactTokenIsRejected() {
+        Instant issuedAt = Instant.now().minusSeconds(7_200);
+        String expired = compactTokenCodec.encode("admin", issuedAt, issuedAt.plusSeconds(3_600), 3L, null);
+
+        // Подпись верна, но срок истек
+        assertThat(compactTokenCodec.decode(expired)).isNotNull();
+        assertThat(tokenProvider.decodeValidToken(expired)).isNull();
+        assertThat(tokenProvider.validateToken(expired)).isFalse();
+        assertThat(tokenProvider.isTokenExpired(expired)).isTrue();
+    }
+}
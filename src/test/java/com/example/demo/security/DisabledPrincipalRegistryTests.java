@@ -0,0 +1,113 @@
+package com.example.demo.security;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Отзыв токенов по моменту выдачи: локальный канал изменений
+ * и снимок из revoked_principals (миграции на H2)
+ */
+class DisabledPrincipalRegistryTests {
+
+    private static final long TOKEN_LIFETIME_MS = 86_400_000L;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:revocations-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void tokensIssuedBeforeRevocationAreRejected() {
+        LocalAccountStatusFeed feed = new LocalAccountStatusFeed();
+        DisabledPrincipalRegistry registry = registry(feed);
+        Instant revokedAt = Instant.now();
+        Instant before = revokedAt.minusSeconds(60);
+        Instant after = revokedAt.plusSeconds(1);
+
+        feed.publish(new AccountStatusChange("user", true, revokedAt));
+        assertThat(registry.isRevoked("user", before)).isTrue();
+        assertThat(registry.isRevoked("user", null)).isTrue();
+        // Имя зарегистрировано заново - токены нового пользователя выданы позже отзыва
+        assertThat(registry.isRevoked("user", after)).isFalse();
+        assertThat(registry.isRevoked("admin", before)).isFalse();
+        assertThat(registry.isRevoked(null, before)).isFalse();
+
+        // Включение не возвращает силу старым токенам
+        feed.publish(new AccountStatusChange("user", false, null));
+        assertThat(registry.isRevoked("user", before)).isTrue();
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void everySubscriberReceivesTheChange() {
+        LocalAccountStatusFeed feed = new LocalAccountStatusFeed();
+        DisabledPrincipalRegistry registry = registry(feed);
+        List<String> evicted = new ArrayList<>();
+        feed.subscribe(change -> evicted.add(change.username()));
+
+        Instant revokedAt = Instant.now();
+        feed.publish(new AccountStatusChange("service", true, revokedAt));
+        feed.publish(new AccountStatusChange("service", true, revokedAt));
+
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(evicted).containsExactly("service", "service");
+    }
+
+    @Test
+    void deletedUserIsRevokedAfterRestart() {
+        Instant issuedAt = Instant.now().minusSeconds(60);
+        // Удаленного пользователя нет в users - отзыв известен только из revoked_principals
+        registry(new LocalAccountStatusFeed()).persist("deleted");
+        jdbcTemplate.update("INSERT INTO users (username, password, enabled) VALUES ('disabled', 'x', FALSE)");
+
+        DisabledPrincipalRegistry restarted = registry(new LocalAccountStatusFeed());
+        restarted.reload();
+
+        assertThat(restarted.isRevoked("deleted", issuedAt)).isTrue();
+        assertThat(restarted.isRevoked("disabled", issuedAt)).isTrue();
+        assertThat(restarted.isRevoked("active", issuedAt)).isFalse();
+    }
+
+    @Test
+    void expiredRevocationsAreDropped() {
+        Instant longAgo = Instant.now().minusMillis(TOKEN_LIFETIME_MS).minusSeconds(60);
+        jdbcTemplate.update("INSERT INTO revoked_principals (username, revoked_at, expires_at) VALUES (?, ?, ?)",
+                "old", Timestamp.from(longAgo), Timestamp.from(longAgo.plusMillis(TOKEN_LIFETIME_MS)));
+        LocalAccountStatusFeed feed = new LocalAccountStatusFeed();
+        DisabledPrincipalRegistry registry = registry(feed);
+        registry.reload();
+        // Все токены, выданные до этого отзыва, уже истекли
+        feed.publish(new AccountStatusChange("stale", true, longAgo));
+
+        assertThat(registry.size()).isZero();
+        registry.expire();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revoked_principals", Integer.class)).isZero();
+    }
+
+    private DisabledPrincipalRegistry registry(AccountStatusFeed feed) {
+        DisabledPrincipalRegistry registry = new DisabledPrincipalRegistry(feed, TOKEN_LIFETIME_MS);
+        ReflectionTestUtils.setField(registry, "jdbcTemplate", jdbcTemplate);
+        return registry;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.security;
+
+import com.example.demo.config.JwtConfig;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hs512JwtEncoder и Hs512Jws против стандартных NimbusJwtEncoder/NimbusJwtDecoder:
+ * совпадение токенов байт в байт и отказ для подделанной подписи
+ * (пропускная способность - Hs512JwsBenchmark в профиле benchmark)
+ */
+class Hs512JwsTests {
+
+    private SecretKey secretKey;
+    private JwtEncoder encoder;
+    private JwtDecoder decoder;
+    private JwtEncoder nimbusEncoder;
+    private JwtDecoder nimbusDecoder;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "jwtSecret",
+                "mySecretKeyForJWTTokenGenerationAndValidationInSpringSecurityDemoApplication2024");
+        secretKey = jwtConfig.jwtSecretKey();
+        encoder = jwtConfig.jwtEncoder();
+        decoder = jwtConfig.jwtDecoder();
+
+        // Прежняя конфигурация JwtConfig
+        OctetSequenceKey octetKey = new OctetSequenceKey.Builder(secretKey).keyID("jwt-signing-key").build();
+        nimbusEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(octetKey)));
+        nimbusDecoder = NimbusJwtDecoder.withSecretKey(secretKey).macAlgorithm(MacAlgorithm.HS512).build();
+    }
+
+    @Test
+    void tokensAreByteForByteCompatible() {
+        Instant now = Instant.now();
+        for (JwtEncoderParameters parameters : List.of(
+                parameters("admin", now, "authorities", "ROLE_ADMIN ROLE_USER"),
+                parameters("пользователь", now, "rm", 3L))) {
+            String expected = nimbusEncoder.encode(parameters).getTokenValue();
+            String actual = encoder.encode(parameters).getTokenValue();
+
+            assertThat(actual).isEqualTo(expected);
+            assertThat(decoder.decode(expected).getSubject()).isEqualTo(nimbusDecoder.decode(actual).getSubject());
+        }
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String token = encoder.encode(parameters("admin", Instant.now(), "authorities", "ROLE_USER")).getTokenValue();
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A')
+                + token.charAt(token.length() - 1);
+
+        assertThatThrownBy(() -> decoder.decode(tampered)).isInstanceOf(BadJwtException.class);
+    }
+
+    private static JwtEncoderParameters parameters(String subject, Instant issuedAt, String claim, Object value) {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("spring-security-demo")
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(86_400))
+                .subject(subject)
+                .claim(claim, value)
+                .build();
+        return JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS512).build(), claims);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.security;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Опрос account_status_events с перекрытием: события, закоммиченные
+ * с опозданием и меньшим id, не теряются и применяются один раз
+ */
+class JdbcAccountStatusFeedTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcAccountStatusFeed feed;
+    private final List<String> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:status-feed-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        feed = new JdbcAccountStatusFeed(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                Duration.ofDays(1), Duration.ofSeconds(30));
+        feed.subscribe(change -> received.add(change.username()));
+        feed.start();
+    }
+
+    @Test
+    void lateCommittedEventWithLowerIdIsNotSkipped() {
+        insert(10, "first", Instant.now());
+        feed.poll();
+        assertThat(received).containsExactly("first");
+
+        // Другой узел получил id 5 раньше, но закоммитил после опроса
+        insert(5, "late", Instant.now().minusSeconds(5));
+        feed.poll();
+        assertThat(received).containsExactly("first", "late");
+
+        feed.poll();
+        assertThat(received).containsExactly("first", "late");
+    }
+
+    @Test
+    void ownEventsAreAppliedOnce() {
+        feed.publish(new AccountStatusChange("own", true, Instant.now()));
+        feed.poll();
+        feed.poll();
+
+        assertThat(received).containsExactly("own");
+        Timestamp revokedAt = jdbcTemplate.queryForObject(
+                "SELECT revoked_at FROM account_status_events WHERE username = 'own'", Timestamp.class);
+        assertThat(revokedAt).isNotNull();
+    }
+
+    private void insert(long id, String username, Instant createdAt) {
+        jdbcTemplate.update(
+                "INSERT INTO account_status_events (id, username, disabled, revoked_at, created_at) VALUES (?, ?, TRUE, ?, ?)",
+                id, username, Timestamp.from(createdAt), Timestamp.from(createdAt));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.security;
+
+import com.example.demo.entity.Role;
+import com.example.demo.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * RoleMaskRegistry: кодирование authorities в маску и обратно,
+ * неизвестные роли и биты без обращения к БД
+ */
+class RoleMaskRegistryTests {
+
+    private RoleRepository roleRepository;
+    private RoleMaskRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ADMIN"), role(2L, "USER"), role(65L, "AUDITOR")));
+        registry = new RoleMaskRegistry();
+        ReflectionTestUtils.setField(registry, "roleRepository", roleRepository);
+        registry.refresh();
+    }
+
+    @Test
+    void maskRoundTrip() {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER");
+
+        long mask = registry.maskOf(authorities);
+        assertThat(mask).isEqualTo(0b11L);
+        assertThat(registry.authoritiesOf(mask)).containsExactlyInAnyOrderElementsOf(authorities);
+        assertThat(registry.authoritiesOf(registry.maskOf(AuthorityUtils.createAuthorityList("ROLE_USER"))))
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        assertThat(registry.authoritiesOf(mask)).isSameAs(registry.authoritiesOf(mask));
+    }
+
+    @Test
+    void unknownRolesAndBitsDoNotQueryDatabase() {
+        // Роль не из таблицы и роль с id больше 64 - маску не построить
+        assertThat(registry.maskOf(AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_GUEST"))).isEqualTo(-1L);
+        assertThat(registry.maskOf(AuthorityUtils.createAuthorityList("ROLE_AUDITOR"))).isEqualTo(-1L);
+        assertThat(registry.bitOfRole("GUEST")).isZero();
+
+        // Бит роли, о которой этот узел еще не знает, пропускается
+        assertThat(registry.authoritiesOf(0b10L | 1L << 40))
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        assertThat(registry.authoritiesOf(1L << 63)).isEmpty();
+
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refreshPicksUpNewRole() {
+        long mask = 0b101L;
+        assertThat(registry.authoritiesOf(mask)).hasSize(1);
+
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ADMIN"), role(2L, "USER"), role(3L, "EDITOR")));
+        registry.refresh();
+
+        assertThat(registry.authoritiesOf(mask))
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN", "ROLE_EDITOR");
+        assertThat(registry.bitOfRole("EDITOR")).isEqualTo(0b100L);
+    }
+
+    private static Role role(Long id, String name) {
+        Role role = new Role(name);
+        role.setId(id);
+        return role;
+    }
+}
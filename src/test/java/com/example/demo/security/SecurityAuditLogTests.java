@@ -0,0 +1,76 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка кольцевого буфера и файлового хранилища журнала аудита
+ */
+class SecurityAuditLogTests {
+
+    @Test
+    void fullBufferRejectsInsteadOfBlocking() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(99)).isFalse();
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(List.of(buffer.poll(), buffer.poll(), buffer.poll(), buffer.poll())).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingWhileThereIsRoom() throws InterruptedException {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(1 << 16);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            int base = p * 10_000;
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    buffer.offer(base + i);
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        Integer value;
+        while ((value = buffer.poll()) != null) {
+            seen.add(value);
+        }
+        assertThat(seen).hasSize(40_000);
+    }
+
+    @Test
+    void mappedFileIsAppendedAcrossReopen(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("audit.log");
+        Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        try (MappedFileAuditSink sink = new MappedFileAuditSink(file)) {
+            sink.write(List.of(new SecurityEvent(SecurityEvent.LOGIN_SUCCESS, "admin", "127.0.0.1", "/login", now)));
+        }
+        try (MappedFileAuditSink sink = new MappedFileAuditSink(file)) {
+            sink.write(List.of(new SecurityEvent(SecurityEvent.ACCESS_DENIED, "user", null, "GET\t/admin", now)));
+        }
+
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8)).containsExactly(
+                "2024-01-01T00:00:00Z\tLOGIN_SUCCESS\tadmin\t127.0.0.1\t/login",
+                "2024-01-01T00:00:00Z\tACCESS_DENIED\tuser\t-\tGET /admin");
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demo.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.ExceptionTranslationFilter;
+import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
+import org.springframework.security.web.savedrequest.HttpSessionRequestCache;
+import org.springframework.security.web.savedrequest.RequestCache;
+import org.springframework.security.web.savedrequest.SavedRequest;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SignedCookieRequestCache: редирект после входа без сессии
+ * и нагрузочное сравнение роста хранилища сессий с HttpSessionRequestCache
+ */
+class SignedCookieRequestCacheTests {
+
+    private static final int BOT_REQUESTS = 10_000;
+
+    private final SignedCookieRequestCache cache = new SignedCookieRequestCache(
+            new Hs512Mac(new SecretKeySpec(new byte[64], Hs512Mac.ALGORITHM)), Duration.ofMinutes(5));
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void savesRequestInCookieWithoutSession() {
+        MockHttpServletRequest request = get("/user/profile", "tab=security");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.saveRequest(request, response);
+
+        assertThat(request.getSession(false)).isNull();
+        Cookie cookie = response.getCookie(SignedCookieRequestCache.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.isHttpOnly()).isTrue();
+
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+        login.setCookies(cookie);
+        SavedRequest saved = cache.getRequest(login, new MockHttpServletResponse());
+        assertThat(saved.getRedirectUrl()).isEqualTo("/user/profile?tab=security");
+
+        // Пришли на сохраненный адрес - cookie удаляется
+        MockHttpServletRequest back = get("/user/profile", "tab=security");
+        back.setCookies(cookie);
+        MockHttpServletResponse backResponse = new MockHttpServletResponse();
+        assertThat(cache.getMatchingRequest(back, backResponse)).isSameAs(back);
+        assertThat(backResponse.getCookie(SignedCookieRequestCache.COOKIE_NAME).getMaxAge()).isZero();
+    }
+
+    @Test
+    void rejectsTamperedCookieAndSkipsApiRequests() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.saveRequest(get("/admin/users", null), response);
+        String value = response.getCookie(SignedCookieRequestCache.COOKIE_NAME).getValue();
+        String payload = value.substring(0, value.indexOf('.'));
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("9999999999|//evil.example".getBytes())
+                + value.substring(payload.length());
+
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+        login.setCookies(new Cookie(SignedCookieRequestCache.COOKIE_NAME, forged));
+        assertThat(cache.getRequest(login, new MockHttpServletResponse())).isNull();
+
+        MockHttpServletResponse apiResponse = new MockHttpServletResponse();
+        cache.saveRequest(get("/api/user/info", null), apiResponse);
+        assertThat(apiResponse.getCookies()).isEmpty();
+    }
+
+    /**
+     * Нагрузка ботов: анонимные запросы к защищенным страницам проходят через
+     * ExceptionTranslationFilter, как в цепочке SecurityConfig. Хранилище сессий
+     * моделируется картой id -> сессия, его объем - сериализованный размер атрибутов
+     */
+    @Test
+    void anonymousRequestsDoNotGrowSessionStore() throws Exception {
+        Map<String, HttpSession> sessionStore = new HashMap<>();
+        long[] cookieBytes = {0};
+        load(new HttpSessionRequestCache(), sessionStore, cookieBytes);
+
+        assertThat(sessionStore).hasSize(BOT_REQUESTS);
+        long sessionStoreBytes = storeBytes(sessionStore);
+        // Каждая сессия держит сохраненный запрос целиком: заголовки, параметры, cookies
+        assertThat(sessionStoreBytes).isGreaterThan(BOT_REQUESTS * 500L);
+        assertThat(cookieBytes[0]).isZero();
+
+        sessionStore.clear();
+        load(cache, sessionStore, cookieBytes);
+
+        assertThat(sessionStore).isEmpty();
+        long cookieAverage = cookieBytes[0] / BOT_REQUESTS;
+        // Состояние редиректа уходит клиенту, меньше лимита cookie и меньше сохраненного в сессии запроса
+        assertThat(cookieAverage).isBetween(1L, 4096L);
+        assertThat(cookieAverage).isLessThan(sessionStoreBytes / BOT_REQUESTS);
+    }
+
+    private static void load(RequestCache requestCache, Map<String, HttpSession> sessionStore, long[] cookieBytes)
+            throws Exception {
+        ExceptionTranslationFilter filter = new ExceptionTranslationFilter(
+                new LoginUrlAuthenticationEntryPoint("/login"), requestCache);
+        filter.afterPropertiesSet();
+        FilterChain denied = (request, response) -> {
+            throw new AccessDeniedException("anonymous");
+        };
+        for (int i = 0; i < BOT_REQUESTS; i++) {
+            SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                    "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+            MockHttpServletRequest request = get((i % 2 == 0 ? "/admin/page" : "/user/page") + i, "ref=" + i);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, denied);
+
+            assertThat(response.getRedirectedUrl()).endsWith("/login");
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                sessionStore.put(session.getId(), session);
+            }
+            Cookie cookie = response.getCookie(SignedCookieRequestCache.COOKIE_NAME);
+            if (cookie != null) {
+                cookieBytes[0] += cookie.getValue().length();
+            }
+        }
+    }
+
+    private static long storeBytes(Map<String, HttpSession> sessionStore) throws IOException {
+        long bytes = 0;
+        for (HttpSession session : sessionStore.values()) {
+            for (String name : Collections.list(session.getAttributeNames())) {
+                bytes += serializedSize(session.getAttribute(name));
+            }
+        }
+        return bytes;
+    }
+
+    private static MockHttpServletRequest get(String path, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setQueryString(query);
+        request.addHeader("Accept", "text/html");
+        return request;
+    }
+
+    private static long serializedSize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.size();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReplicaLagGuard;
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.DisabledPrincipalRegistry;
+import com.example.demo.security.LocalAccountStatusFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Рассылка изменения статуса только после коммита транзакции
+ */
+class AccountStatusServiceTests {
+
+    private final LocalAccountStatusFeed feed = new LocalAccountStatusFeed();
+    private final DisabledPrincipalRegistry registry = new DisabledPrincipalRegistry(feed, 86_400_000L);
+    private final Instant issuedAt = Instant.now().minusSeconds(60);
+    private final AccountStatusService service = new AccountStatusService();
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User("user", "password")));
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "accountStatusFeed", feed);
+        ReflectionTestUtils.setField(service, "replicaLagGuard", mock(ReplicaLagGuard.class));
+        ReflectionTestUtils.setField(service, "disabledPrincipals", registry);
+        ReflectionTestUtils.setField(registry, "jdbcTemplate", mock(JdbcTemplate.class));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void publishesOnlyAfterCommit() {
+        service.setEnabled(1L, false);
+        assertThat(registry.isRevoked("user", issuedAt)).isFalse();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(registry.isRevoked("user", issuedAt)).isTrue();
+    }
+
+    @Test
+    void rolledBackChangeIsNotPublished() {
+        service.setEnabled(1L, false);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(registry.isRevoked("user", issuedAt)).isFalse();
+    }
+}
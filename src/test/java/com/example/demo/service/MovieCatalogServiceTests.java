@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.Movie;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MovieCatalogService против локального stub сервера OMDb (без сети)
+ */
+class MovieCatalogServiceTests {
+
+    private HttpServer stub;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private volatile int status = 200;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/", exchange -> {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String query = exchange.getRequestURI().getQuery();
+            String body = query.contains("t=Unknown")
+                    ? "{\"Response\":\"False\",\"Error\":\"Movie not found!\"}"
+                    : "{\"Title\":\"Alien\",\"Year\":\"1979\",\"Genre\":\"Horror\",\"imdbID\":\"tt0078748\",\"Response\":\"True\"}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+    }
+
+    private MovieCatalogService service(int failureThreshold) {
+        return service("http://127.0.0.1:" + stub.getAddress().getPort() + "/", failureThreshold, 100);
+    }
+
+    private static MovieCatalogService service(String baseUrl, int failureThreshold, int ratePerSecond) {
+        return new MovieCatalogService(new ObjectMapper(), baseUrl, "test", List.of("Action"),
+                Duration.ofMinutes(10), 100, Duration.ofSeconds(2), failureThreshold, Duration.ofMinutes(1),
+                ratePerSecond);
+    }
+
+    @Test
+    void concurrentLookupsOfSameTitleShareOneUpstreamCall() {
+        MovieCatalogService service = service(5);
+
+        List<CompletableFuture<Optional<Movie>>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(service.findByTitle("Alien"));
+        }
+        futures.forEach(f -> assertThat(f.join()).get().extracting(Movie::getYear).isEqualTo("1979"));
+        assertThat(upstreamCalls).hasValue(1);
+
+        // Повторный запрос обслуживается из кэша
+        assertThat(service.findByTitle(" alien ").join()).isPresent();
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void notFoundIsCachedToo() {
+        MovieCatalogService service = service(5);
+
+        assertThat(service.findByTitle("Unknown").join()).isEmpty();
+        assertThat(service.findByTitle("Unknown").join()).isEmpty();
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void circuitBreakerStopsCallingFailingUpstream() {
+        MovieCatalogService service = service(2);
+        status = 500;
+
+        for (String title : List.of("a", "b", "c", "d")) {
+            assertThatThrownBy(() -> service.findByTitle(title).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(MovieCatalogService.CatalogUnavailableException.class);
+        }
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void upstreamCallsAreRateLimited() {
+        MovieCatalogService service = service("http://127.0.0.1:" + stub.getAddress().getPort() + "/", 5, 2);
+
+        int failed = 0;
+        for (String title : List.of("a", "b", "c", "d")) {
+            try {
+                service.findByTitle(title).join();
+            } catch (CompletionException e) {
+                assertThat(e).hasCauseInstanceOf(MovieCatalogService.CatalogUnavailableException.class);
+                failed++;
+            }
+        }
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(failed).isEqualTo(2);
+    }
+
+    @Test
+    void synchronousFetchErrorDoesNotLeaveLookupInFlight() {
+        // Пробел в хосте - URI.create бросает исключение до отправки запроса
+        MovieCatalogService service = service("http://bad host/", 5, 100);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> service.findByTitle("Alien").get(1, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(MovieCatalogService.CatalogUnavailableException.class);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Продолжение прерванных запусков и контрольная точка только под своей блокировкой
+ */
+class ReminderDispatcherTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private ReminderDispatcher dispatcher;
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private volatile Runnable onSend = () -> { };
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:reminders-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 1; i <= 10; i++) {
+            jdbcTemplate.update("INSERT INTO users (id, username, password, enabled) VALUES (?, ?, 'x', TRUE)",
+                    i, "user" + i);
+        }
+
+        SchedulerLockService lockService = new SchedulerLockService();
+        ReflectionTestUtils.setField(lockService, "jdbcTemplate", jdbcTemplate);
+
+        dispatcher = new ReminderDispatcher(2);
+        ReflectionTestUtils.setField(dispatcher, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(dispatcher, "lockService", lockService);
+        ReflectionTestUtils.setField(dispatcher, "reminderSender", (ReminderSender) (reminder, usernames) -> {
+            if ("morning".equals(reminder)) {
+                onSend.run();
+                sent.addAll(usernames);
+            }
+        });
+        ReflectionTestUtils.setField(dispatcher, "chunkSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "lockLease", Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void crashedRunIsResumedFromCheckpoint() throws InterruptedException {
+        // Узел упал вчера после user3: запуск RUNNING, блокировка истекла
+        String runKey = "morning:" + LocalDate.now().minusDays(1);
+        insertRun(runKey, 3);
+        insertLock("crashed-node", Instant.now().minusSeconds(1));
+
+        dispatcher.resumeInterrupted();
+        awaitIdle();
+
+        assertThat(sent).containsExactlyInAnyOrder("user4", "user5", "user6", "user7", "user8", "user9", "user10");
+        assertThat(status(runKey)).isEqualTo("DONE");
+        assertThat(lastUserId(runKey)).isEqualTo(10L);
+    }
+
+    @Test
+    void runOfLiveNodeIsNotResumed() throws InterruptedException {
+        String runKey = "morning:" + LocalDate.now();
+        insertRun(runKey, 3);
+        insertLock("live-node", Instant.now().plusSeconds(300));
+
+        dispatcher.resumeInterrupted();
+        awaitIdle();
+
+        assertThat(sent).isEmpty();
+        assertThat(status(runKey)).isEqualTo("RUNNING");
+    }
+
+    @Test
+    void checkpointIsNotWrittenAfterLockIsLost() throws InterruptedException {
+        // Во время первой волны блокировку перехватывает другой узел
+        onSend = () -> jdbcTemplate.update(
+                "UPDATE scheduler_locks SET locked_by = 'other-node', locked_until = ? WHERE name = 'reminder:morning'",
+                Timestamp.from(Instant.now().plusSeconds(300)));
+
+        dispatcher.dispatch("morning");
+        awaitIdle();
+
+        String runKey = "morning:" + LocalDate.now();
+        assertThat(sent).containsExactlyInAnyOrder("user1", "user2", "user3", "user4");
+        assertThat(lastUserId(runKey)).isZero();
+        assertThat(status(runKey)).isEqualTo("RUNNING");
+    }
+
+    /**
+     * Координатор выполняет задачи по очереди: завершение запуска-маркера
+     * означает, что все поставленные до него задачи выполнены
+     */
+    private void awaitIdle() throws InterruptedException {
+        dispatcher.dispatch("marker");
+        String markerKey = "marker:" + LocalDate.now();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!"DONE".equals(status(markerKey))) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private void insertRun(String runKey, long lastUserId) {
+        jdbcTemplate.update("INSERT INTO reminder_runs (run_key, reminder, last_user_id, status, started_at)"
+                + " VALUES (?, 'morning', ?, 'RUNNING', ?)", runKey, lastUserId, Timestamp.from(Instant.now()));
+    }
+
+    private void insertLock(String lockedBy, Instant lockedUntil) {
+        jdbcTemplate.update("INSERT INTO scheduler_locks (name, locked_until, locked_by) VALUES ('reminder:morning', ?, ?)",
+                Timestamp.from(lockedUntil), lockedBy);
+    }
+
+    private String status(String runKey) {
+        List<String> status = jdbcTemplate.queryForList(
+                "SELECT status FROM reminder_runs WHERE run_key = ?", String.class, runKey);
+        return status.isEmpty() ? null : status.get(0);
+    }
+
+    private Long lastUserId(String runKey) {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_user_id FROM reminder_runs WHERE run_key = ?", Long.class, runKey);
+    }
+}
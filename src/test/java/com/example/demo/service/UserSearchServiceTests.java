@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Поиск пользователей: фильтры, сортировка, keyset пагинация и проверка курсора
+ */
+class UserSearchServiceTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserSearchService service = new UserSearchService();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:user-search-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+
+        insertUser(1, "admin", true);
+        insertUser(2, "alice", false);
+        insertUser(3, "bob", true);
+        insertUser(4, "malice", true);
+        insertUser(5, "al_pha", true);
+    }
+
+    @Test
+    void prefixAndContainsMatch() throws IOException {
+        assertThat(usernames(search("al", "username", UserSearchService.Match.PREFIX, null, null, 10)))
+                .containsExactly("alice", "al_pha");
+        assertThat(usernames(search("lic", "username", UserSearchService.Match.CONTAINS, null, null, 10)))
+                .containsExactly("alice", "malice");
+        // _ в запросе - обычный символ, а не шаблон LIKE
+        assertThat(usernames(search("al_", "username", UserSearchService.Match.PREFIX, null, null, 10)))
+                .containsExactly("al_pha");
+        assertThat(usernames(search("3", "id", UserSearchService.Match.PREFIX, null, null, 10)))
+                .containsExactly("bob");
+    }
+
+    @Test
+    void sortByUsernameDescending() throws IOException {
+        assertThat(usernames(search(null, "username", UserSearchService.Match.PREFIX, "-username", null, 10)))
+                .containsExactly("malice", "bob", "alice", "al_pha", "admin");
+    }
+
+    @Test
+    void cursorWalksAllPagesWithoutGapsOrDuplicates() throws IOException {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonNode page = search(null, "username", UserSearchService.Match.PREFIX, "enabled,-username", cursor, 2);
+            seen.addAll(usernames(page));
+            cursor = page.get("next").isNull() ? null : page.get("next").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactly("alice", "malice", "bob", "al_pha", "admin");
+    }
+
+    @Test
+    void cursorWithWrongValueTypesIsRejected() {
+        // Сортировка username,id: ожидается [строка, число]
+        assertThatThrownBy(() -> search(null, "username", UserSearchService.Match.PREFIX, "username", cursor("[1, \"x\"]"), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> search(null, "username", UserSearchService.Match.PREFIX, "username", cursor("[\"a\", 1.5]"), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> search(null, "username", UserSearchService.Match.PREFIX, "enabled", cursor("[\"yes\", 1]"), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> search(null, "username", UserSearchService.Match.PREFIX, "username", cursor("[null, 1]"), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> search(null, "username", UserSearchService.Match.PREFIX, "username", cursor("{\"a\": 1}"), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> search(null, "username", UserSearchService.Match.PREFIX, "username", "%%%", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cursorWithMatchingTypesIsAccepted() throws IOException {
+        assertThat(usernames(search(null, "username", UserSearchService.Match.PREFIX, "username", cursor("[\"alice\", 2]"), 10)))
+                .containsExactly("bob", "malice");
+    }
+
+    @Test
+    void unknownSortFieldAndNonNumericIdAreRejected() {
+        assertThatThrownBy(() -> search(null, "username", UserSearchService.Match.PREFIX, "password", null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> search("abc", "id", UserSearchService.Match.PREFIX, null, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private JsonNode search(String query, String field, UserSearchService.Match match, String sort,
+                            String cursor, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.search(query, field, match, sort, cursor, limit, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private List<String> usernames(JsonNode page) {
+        List<String> usernames = new ArrayList<>();
+        page.get("items").forEach(item -> usernames.add(item.get("username").asText()));
+        return usernames;
+    }
+
+    private String cursor(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void insertUser(long id, String username, boolean enabled) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password, enabled) VALUES (?, ?, 'x', ?)",
+                id, username, enabled);
+    }
+}
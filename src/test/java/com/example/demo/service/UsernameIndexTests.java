@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка триграммного индекса имен и его пересборки из таблицы
+ * (замер на 1M и 10M пользователей - UsernameIndexBenchmark)
+ */
+class UsernameIndexTests {
+
+    @Test
+    void prefixAndSubstringSearchIgnoreLatinCase() {
+        UsernameIndex index = new UsernameIndex();
+        index.add(1, "admin");
+        index.add(2, "Administrator");
+        index.add(3, "user");
+        index.add(4, "superuser");
+
+        assertThat(ids(index.searchPrefix("ADM", 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.searchPrefix("u", 10))).containsExactly(3L);
+        assertThat(ids(index.searchContains("user", 10))).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(ids(index.searchContains("st", 10))).containsExactly(2L);
+        assertThat(index.searchContains("nobody", 10)).isEmpty();
+    }
+
+    @Test
+    void removedAndRenamedUsersAreNotReturned() {
+        UsernameIndex index = new UsernameIndex();
+        for (long id = 1; id <= 5_000; id++) {
+            index.add(id, "user" + id);
+        }
+        for (long id = 1; id <= 4_000; id++) {
+            index.remove(id);
+        }
+        index.add(4_500, "renamed");
+
+        assertThat(index.liveCount()).isEqualTo(1_000);
+        assertThat(ids(index.searchPrefix("user1", 100))).isEmpty();
+        assertThat(ids(index.searchPrefix("user45", 100))).doesNotContain(4_500L).hasSize(99);
+        assertThat(ids(index.searchPrefix("ren", 10))).containsExactly(4_500L);
+    }
+
+    @Test
+    void rebuildKeepsServingSearchesAndChangesMadeMeanwhile() throws Exception {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:username-index-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (id, username, password, enabled)"
+                + " SELECT X, 'user' || X, 'x', TRUE FROM SYSTEM_RANGE(1, 100)");
+
+        UsernameIndex index = new UsernameIndex();
+        index.add(1, "user1");
+        List<UsernameIndex.Match> duringRebuild = new ArrayList<>();
+        ReflectionTestUtils.setField(index, "jdbcTemplate", new JdbcTemplate(dataSource) {
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                // Поиск из другого потока и изменения приходят, пока читается таблица
+                try {
+                    duringRebuild.addAll(CompletableFuture.supplyAsync(() -> index.searchPrefix("user", 10))
+                            .get(5, TimeUnit.SECONDS));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                index.add(500, "newcomer");
+                index.remove(2);
+                super.query(psc, rch);
+            }
+        });
+
+        index.rebuildFromDatabase();
+
+        assertThat(ids(duringRebuild)).containsExactly(1L);
+        assertThat(index.liveCount()).isEqualTo(100);
+        assertThat(ids(index.searchPrefix("newc", 10))).containsExactly(500L);
+        assertThat(ids(index.searchContains("user2", 100))).doesNotContain(2L).contains(20L);
+    }
+
+    private static List<Long> ids(List<UsernameIndex.Match> matches) {
+        return matches.stream().map(UsernameIndex.Match::id).toList();
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.reactive;
+
+import com.example.demo.config.JwtConfig;
+import com.example.demo.entity.Role;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.security.AccountStatusChange;
+import com.example.demo.security.CompactTokenCodec;
+import com.example.demo.security.DisabledPrincipalRegistry;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.security.LocalAccountStatusFeed;
+import com.example.demo.security.RoleMaskRegistry;
+import com.example.demo.security.TokenFormat;
+import com.example.demo.service.TieredUserDetailsService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Реактивный JWT API через WebTestClient: вход, проверка токена,
+ * роли и отзыв токена - с той же цепочкой фильтров, что в ReactiveSecurityConfig
+ */
+class ReactiveJwtControllerTests {
+
+    private static final String PASSWORD = "admin123";
+
+    private static AnnotationConfigApplicationContext context;
+
+    private WebTestClient client;
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeAll
+    static void startContext() {
+        LocalAccountStatusFeed feed = new LocalAccountStatusFeed();
+        DisabledPrincipalRegistry disabledPrincipals = new DisabledPrincipalRegistry(feed, 86_400_000L);
+        ReflectionTestUtils.setField(disabledPrincipals, "jdbcTemplate", mock(JdbcTemplate.class));
+
+        // Тот же BCrypt(12), что passwordEncoder в ReactiveSecurityConfig
+        String passwordHash = new BCryptPasswordEncoder(12).encode(PASSWORD);
+        TieredUserDetailsService userDetailsService = mock(TieredUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(
+                User.withUsername("admin").password(passwordHash).roles("ADMIN", "USER").build());
+
+        // Готовые объекты регистрируются как есть, без внедрения @Autowired и @Value
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("jwtTokenProvider", createTokenProvider());
+        context.getBeanFactory().registerSingleton("accountStatusFeed", feed);
+        context.getBeanFactory().registerSingleton("disabledPrincipalRegistry", disabledPrincipals);
+        context.getBeanFactory().registerSingleton("tieredUserDetailsService", userDetailsService);
+        context.register(WebConfig.class);
+        context.refresh();
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToApplicationContext(context).build();
+        tokenProvider = context.getBean(JwtTokenProvider.class);
+    }
+
+    @Test
+    void loginIssuesTokenAcceptedByProtectedEndpoints() {
+        byte[] login = client.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"admin\",\"password\":\"" + PASSWORD + "\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.type").isEqualTo("Bearer")
+                .jsonPath("$.username").isEqualTo("admin")
+                .returnResult()
+                .getResponseBody();
+        String token = JsonPath.read(new String(login, StandardCharsets.UTF_8), "$.token");
+
+        client.get().uri("/api/user/info")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("admin")
+                .jsonPath("$.authenticated").isEqualTo(true);
+
+        client.get().uri("/api/admin/stats")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody().json("{\"totalUsers\":100,\"activeUsers\":75,"
+                        + "\"message\":\"Статистика доступна только администраторам\"}");
+    }
+
+    @Test
+    void wrongPasswordIsBadRequest() {
+        client.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"admin\",\"password\":\"wrong\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void adminStatsRequiresAdminRole() {
+        client.get().uri("/api/admin/stats")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        client.get().uri("/api/admin/stats")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("user", "USER"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void compactTokenIsAccepted() {
+        client.get().uri("/api/user/info")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenProvider.generateToken(
+                        authentication("user", "USER"), TokenFormat.COMPACT))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.username").isEqualTo("user");
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        String token = token("revoked", "USER");
+        context.getBean(LocalAccountStatusFeed.class)
+                .publish(new AccountStatusChange("revoked", true, Instant.now()));
+
+        client.get().uri("/api/user/info")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private String token(String username, String... roles) {
+        return tokenProvider.generateToken(authentication(username, roles), TokenFormat.JWS);
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(String username, String... roles) {
+        UserDetails principal = User.withUsername(username).password("x").roles(roles).build();
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static JwtTokenProvider createTokenProvider() {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "jwtSecret",
+                "mySecretKeyForJWTTokenGenerationAndValidationInSpringSecurityDemoApplication2024");
+
+        Role admin = new Role("ADMIN");
+        admin.setId(1L);
+        Role user = new Role("USER");
+        user.setId(2L);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(admin, user));
+        RoleMaskRegistry registry = new RoleMaskRegistry();
+        ReflectionTestUtils.setField(registry, "roleRepository", roleRepository);
+        registry.refresh();
+
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(jwtConfig.jwtEncoder(), jwtConfig.jwtDecoder(),
+                registry, new CompactTokenCodec(jwtConfig.jwtSecretKey()));
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 86_400_000L);
+        return tokenProvider;
+    }
+
+    @Configuration
+    @EnableWebFlux
+    @Import({ReactiveSecurityConfig.class, ReactiveJwtController.class})
+    static class WebConfig {
+    }
+}